@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance.benchmark;
+
+import be.yvanmazy.nomoreinstance.PoolConcurrency;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Run the benchmarks once per thread count. {@link PoolConcurrency#NOT_CONCURRENT} is only measured with a single
+ * thread. Every run writes a JSON report in {@code build/results/jmh} to compare releases.
+ * <p>
+ * Arguments are regular JMH options, {@code -t} overrides the thread counts.
+ */
+public final class BenchmarkRunner {
+
+    private static final int[] THREADS = {1, 4, 16, 32};
+
+    private BenchmarkRunner() throws IllegalAccessException {
+        throw new IllegalAccessException("You cannot instantiate this class");
+    }
+
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+        final int[] threadCounts = commandLine.getThreads().hasValue() ? new int[] {commandLine.getThreads().get()} : THREADS;
+        final File results = new File("build/results/jmh");
+        if (!results.isDirectory() && !results.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + results);
+        }
+        for (final int threads : threadCounts) {
+            final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(results, "threads-" + threads + ".json").getPath());
+            if (threads > 1 && !commandLine.getParameter("concurrency").hasValue()) {
+                options.param("concurrency", Arrays.stream(PoolConcurrency.values())
+                        .filter(PoolConcurrency::isThreadSafe)
+                        .map(Enum::name)
+                        .toArray(String[]::new));
+            }
+            new Runner(options.build()).run();
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance.benchmark;
+
+import be.yvanmazy.nomoreinstance.Cleanable;
+import be.yvanmazy.nomoreinstance.CleanablePool;
+import be.yvanmazy.nomoreinstance.Pool;
+import be.yvanmazy.nomoreinstance.PoolConcurrency;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CleanablePoolBenchmark {
+
+    @Param({"64", "1024", "10000"})
+    private int size;
+
+    @Param({"0", "50", "90"})
+    private int occupancy;
+
+    @Param
+    private PoolConcurrency concurrency;
+
+    private CleanablePool<BenchmarkObject> pool;
+    private double value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.pool = Pool.<BenchmarkObject>newBuilder()
+                .supplier(BenchmarkObject::new)
+                .cleaner(BenchmarkObject::reset)
+                .concurrency(this.concurrency)
+                .build(BenchmarkObject.class, this.size);
+        // Slots acquired here are never released, they simulate objects leased by the rest of the application
+        final int held = this.size * this.occupancy / 100;
+        for (int i = 0; i < held; i++) {
+            this.pool.get();
+        }
+    }
+
+    @Benchmark
+    public double getAndClose() {
+        try (final Cleanable<BenchmarkObject> cleanable = this.pool.get()) {
+            return cleanable.value().set(this.value, this.value, this.value).length();
+        }
+    }
+
+    @Benchmark
+    public double acquireIndexAndRelease() {
+        final int index = this.pool.acquireIndex();
+        try {
+            final BenchmarkObject object = index != CleanablePool.NO_INDEX ? this.pool.valueAt(index) : new BenchmarkObject();
+            return object.set(this.value, this.value, this.value).length();
+        } finally {
+            this.pool.release(index);
+        }
+    }
+
+    @Benchmark
+    public void cleanAll() {
+        this.pool.cleanAll();
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance.benchmark;
+
+import be.yvanmazy.nomoreinstance.CleanablePool;
+import be.yvanmazy.nomoreinstance.Pool;
+import be.yvanmazy.nomoreinstance.PoolConcurrency;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the compact and padded layouts of a {@link PoolConcurrency#LOCK_FREE} pool shared by every thread. Each
+ * thread keeps a window of leased slots and releases the oldest one before acquiring a new one, so threads keep writing
+ * to different bitmap words. The gap only shows with several threads, and grows when they run on different sockets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaddedLayoutBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedPool {
+
+        @Param({"4096"})
+        private int size;
+
+        @Param({"false", "true"})
+        private boolean padded;
+
+        private CleanablePool<BenchmarkObject> pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final Pool.Builder<BenchmarkObject> builder = Pool.<BenchmarkObject>newBuilder()
+                    .supplier(BenchmarkObject::new)
+                    .concurrency(PoolConcurrency.LOCK_FREE);
+            if (this.padded) {
+                builder.paddedLayout();
+            }
+            this.pool = builder.build(BenchmarkObject.class, this.size);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class LeasedSlots {
+
+        @Param({"64"})
+        private int window;
+
+        private int[] indices;
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(final SharedPool shared) {
+            this.indices = new int[this.window];
+            for (int i = 0; i < this.indices.length; i++) {
+                this.indices[i] = shared.pool.acquireIndex();
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(final SharedPool shared) {
+            for (final int index : this.indices) {
+                shared.pool.release(index);
+            }
+        }
+
+    }
+
+    @Benchmark
+    public int releaseOldestAndAcquire(final SharedPool shared, final LeasedSlots leased) {
+        final int position = leased.next;
+        shared.pool.release(leased.indices[position]);
+        final int index = shared.pool.acquireIndex();
+        leased.indices[position] = index;
+        leased.next = position + 1 == leased.indices.length ? 0 : position + 1;
+        return index;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance.benchmark;
+
+import be.yvanmazy.nomoreinstance.Cleanable;
+import be.yvanmazy.nomoreinstance.CleanablePool;
+import be.yvanmazy.nomoreinstance.Pool;
+import be.yvanmazy.nomoreinstance.PoolConcurrency;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cost of one pool once many pools with different cleaners have been used. With the shared pool classes, the cleaner
+ * call inside the pool code has seen every cleaner class and is no longer inlined. Each specialized pool has its own
+ * copy of that call, which only ever sees its own cleaner.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpecializedPoolBenchmark {
+
+    /**
+     * Distinct lambda classes, a single lambda would keep the call site monomorphic even without specialization.
+     */
+    private static final List<UnaryOperator<BenchmarkObject>> CLEANERS = List.of(
+            BenchmarkObject::reset,
+            object -> object.set(1.0D, 0.0D, 0.0D),
+            object -> object.set(0.0D, 1.0D, 0.0D),
+            object -> object.set(0.0D, 0.0D, 1.0D),
+            object -> object.set(1.0D, 1.0D, 0.0D),
+            object -> object.set(0.0D, 1.0D, 1.0D),
+            object -> object.set(1.0D, 0.0D, 1.0D),
+            object -> object.set(1.0D, 1.0D, 1.0D));
+
+    @Param({"1", "64"})
+    private int pools;
+
+    @Param({"20000"})
+    private int warmup;
+
+    @Param({"false", "true"})
+    private boolean specialized;
+
+    @Param
+    private PoolConcurrency concurrency;
+
+    private CleanablePool<BenchmarkObject> pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        @SuppressWarnings("unchecked")
+        final CleanablePool<BenchmarkObject>[] instances =
+                (CleanablePool<BenchmarkObject>[]) new CleanablePool<?>[this.pools];
+        for (int i = 0; i < this.pools; i++) {
+            final Pool.Builder<BenchmarkObject> builder = Pool.<BenchmarkObject>newBuilder()
+                    .supplier(BenchmarkObject::new)
+                    .cleaner(CLEANERS.get(i % CLEANERS.size()))
+                    .concurrency(this.concurrency);
+            if (this.specialized) {
+                builder.specialize();
+            }
+            instances[i] = builder.build(BenchmarkObject.class, 64);
+        }
+        // Use every pool before measuring the first one, as the rest of an application would
+        for (int round = 0; round < this.warmup; round++) {
+            for (final CleanablePool<BenchmarkObject> instance : instances) {
+                instance.get().close();
+            }
+        }
+        this.pool = instances[0];
+    }
+
+    @Benchmark
+    public double getAndClose() {
+        try (final Cleanable<BenchmarkObject> cleanable = this.pool.get()) {
+            return cleanable.value().length();
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance.benchmark;
+
+import be.yvanmazy.nomoreinstance.Pool;
+import be.yvanmazy.nomoreinstance.PoolConcurrency;
+import be.yvanmazy.nomoreinstance.SweepCleanablePool;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threads get objects like a frame, then sweep them at once. The pool is shared by every thread, so the runs with several
+ * threads measure the contention on the pool, and every thread sweeps after getting its share of the pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SweepCleanablePoolBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedPool {
+
+        @Param({"64", "1024", "10000"})
+        private int size;
+
+        @Param
+        private PoolConcurrency concurrency;
+
+        private SweepCleanablePool<BenchmarkObject> pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.pool = Pool.<BenchmarkObject>newBuilder()
+                    .supplier(BenchmarkObject::new)
+                    .cleaner(BenchmarkObject::reset)
+                    .concurrency(this.concurrency)
+                    .buildSweep(BenchmarkObject.class, this.size);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Frame {
+
+        private SweepCleanablePool<BenchmarkObject> pool;
+        private int share;
+        private int remaining;
+        private double value;
+
+        @Setup(Level.Trial)
+        public void setUp(final SharedPool shared, final BenchmarkParams params) {
+            this.pool = shared.pool;
+            this.share = Math.max(1, shared.size / params.getThreads());
+            this.remaining = this.share;
+        }
+
+    }
+
+    /**
+     * Cost of one object, including its share of the {@link SweepCleanablePool#cleanAll()} ending the frame.
+     */
+    @Benchmark
+    public double get(final Frame frame) {
+        if (frame.remaining-- == 0) {
+            frame.remaining = frame.share - 1;
+            frame.pool.cleanAll();
+        }
+        return frame.pool.get().set(frame.value, frame.value, frame.value).length();
+    }
+
+    @Benchmark
+    public void cleanAll(final Frame frame) {
+        frame.pool.cleanAll();
+    }
+
+}
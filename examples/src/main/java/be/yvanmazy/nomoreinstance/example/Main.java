@@ -24,13 +24,21 @@
 
 package be.yvanmazy.nomoreinstance.example;
 
+import be.yvanmazy.nomoreinstance.Cleanable;
+import be.yvanmazy.nomoreinstance.CleanablePool;
 import be.yvanmazy.nomoreinstance.Pool;
 
 public class Main {
 
     public static void main(final String[] args) {
-        // TODO: Add examples
-        System.out.println(Pool.class);
+        final CleanablePool<Particle> particles =
+                Pool.<Particle>newBuilder().supplier(Particle::new).build(Particle.class, 16);
+        try (final Cleanable<Particle> cleanable = particles.get()) {
+            System.out.println(cleanable.value().move(1.0D, 2.0D, 3.0D));
+        }
+        try (final Cleanable<Particle> cleanable = particles.get()) {
+            System.out.println(cleanable.value()); // Reset by the generated ParticleResetter
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance.processor;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.Trees;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generate the resetter of every {@code @Poolable} class. A resetter is a plain list of field assignments, without
+ * reflection or allocation, so the JIT can inline it in the pool cleaning it.
+ * <p>
+ * The annotations are referenced by name, this module does not depend on the library.
+ */
+@SupportedAnnotationTypes(PoolableProcessor.POOLABLE)
+public final class PoolableProcessor extends AbstractProcessor {
+
+    static final String POOLABLE = "be.yvanmazy.nomoreinstance.annotation.Poolable";
+    static final String RESET_TO = "be.yvanmazy.nomoreinstance.annotation.ResetTo";
+
+    private Trees trees;
+
+    @Override
+    public synchronized void init(final ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        try {
+            this.trees = Trees.instance(processingEnv);
+        } catch (final IllegalArgumentException ignored) {
+            // Not running in javac, field initializers cannot be read so every field needs @ResetTo
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                    this.error(element, "@Poolable only applies to concrete classes");
+                } else if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                    this.error(element, "@Poolable classes must not be private");
+                } else {
+                    this.generate((TypeElement) element);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(final TypeElement type) {
+        final List<String> assignments = new ArrayList<>();
+        boolean valid = true;
+        for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            final Set<Modifier> modifiers = field.getModifiers();
+            final String resetTo = resetTo(field);
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                if (resetTo != null) {
+                    this.error(field, "@ResetTo cannot be used on static or final fields");
+                    valid = false;
+                }
+                continue;
+            }
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                this.error(field, "Fields of @Poolable classes must not be private to be reset");
+                valid = false;
+                continue;
+            }
+            final String value = resetTo != null ? resetTo : this.initialValue(field);
+            if (value == null) {
+                this.error(field, this.trees != null ?
+                        "Fields initialized with an expression other than a literal need @ResetTo" :
+                        "This compiler does not expose field initializers, every field needs @ResetTo");
+                valid = false;
+                continue;
+            }
+            assignments.add("object." + field.getSimpleName() + " = " + value + ";");
+        }
+        if (!valid) {
+            return;
+        }
+
+        final String packageName = this.processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String resetterName = resetterName(type);
+        final String typeName = type.getQualifiedName() + (type.getTypeParameters().isEmpty() ? "" : "<?>");
+        try (final Writer writer = this.processingEnv.getFiler()
+                .createSourceFile((packageName.isEmpty() ? "" : packageName + ".") + resetterName, type)
+                .openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("/**\n * Resetter of {@link " + type.getQualifiedName() + "}, generated by "
+                    + PoolableProcessor.class.getSimpleName() + ".\n */\n");
+            writer.write("public final class " + resetterName + " implements java.util.function.UnaryOperator<"
+                    + typeName + "> {\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public " + typeName + " apply(final " + typeName + " object) {\n");
+            for (final String assignment : assignments) {
+                writer.write("        " + assignment + "\n");
+            }
+            writer.write("        return object;\n    }\n\n}\n");
+        } catch (final IOException e) {
+            this.error(type, "Cannot generate " + resetterName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Must match the name looked up at runtime: the binary name with {@code _} instead of {@code $}.
+     */
+    private static String resetterName(final TypeElement type) {
+        final StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement enclosingType) {
+            name.insert(0, enclosingType.getSimpleName() + "_");
+            enclosing = enclosingType.getEnclosingElement();
+        }
+        return name.append("Resetter").toString();
+    }
+
+    private static String resetTo(final VariableElement field) {
+        for (final AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            final TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(RESET_TO)) {
+                for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                        mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return (String) entry.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The literal the field is initialized with, or the default value of its type when it has no initializer. Other
+     * initializers give {@code null}: they may use names that cannot be resolved from the resetter. Without the
+     * compiler trees, whether the field has an initializer is unknown, so it gives {@code null} as well.
+     */
+    private String initialValue(final VariableElement field) {
+        if (this.trees == null) {
+            return null;
+        }
+        final Tree tree = this.trees.getTree(field);
+        final ExpressionTree initializer = tree instanceof VariableTree variable ? variable.getInitializer() : null;
+        if (initializer == null) {
+            return defaultValue(field.asType());
+        }
+        return isLiteral(initializer) ? initializer.toString() : null;
+    }
+
+    private static boolean isLiteral(final ExpressionTree expression) {
+        if (expression instanceof ParenthesizedTree parenthesized) {
+            return isLiteral(parenthesized.getExpression());
+        }
+        if (expression instanceof UnaryTree unary) {
+            final Tree.Kind kind = unary.getKind();
+            return (kind == Tree.Kind.UNARY_MINUS || kind == Tree.Kind.UNARY_PLUS) && isLiteral(unary.getExpression());
+        }
+        return expression instanceof LiteralTree;
+    }
+
+    private static String defaultValue(final TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case BYTE -> "(byte) 0";
+            case SHORT -> "(short) 0";
+            case CHAR -> "'\\0'";
+            case INT -> "0";
+            case LONG -> "0L";
+            case FLOAT -> "0.0F";
+            case DOUBLE -> "0.0D";
+            default -> "null";
+        };
+    }
+
+    private void error(final Element element, final String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
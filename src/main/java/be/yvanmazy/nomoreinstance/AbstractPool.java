@@ -31,6 +31,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Range;
 
+import java.util.Objects;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
@@ -39,26 +40,98 @@ abstract class AbstractPool<T> {
     protected final T[] pool;
     protected Supplier<T> supplier;
     protected UnaryOperator<T> cleaner;
+    protected UnaryOperator<T> releaseCleaner;
+    protected PoolStatsRecorder stats;
 
     protected AbstractPool(final @NotNull T[] pool) {
         this.pool = ArrayPreconditions.requireNonNull(pool, "pool must not be null");
     }
 
+    /**
+     * Create a pool whose empty slots are filled by the supplier when they are first acquired.
+     */
+    protected AbstractPool(final @NotNull T[] pool, final boolean lazy) {
+        this.pool = lazy ? Objects.requireNonNull(pool, "pool must not be null") : ArrayPreconditions.requireNonNull(pool,
+                "pool must not be null");
+    }
+
     protected @NotNull T getAt(final int index) {
-        T object = this.pool[index];
-        final UnaryOperator<T> cleaner = this.cleaner;
+        return getAt(this, index, this.supplier, this.cleaner);
+    }
+
+    /**
+     * Apply the cleaner set with {@link #setReleaseCleaner(UnaryOperator)} to an object given back to the pool.
+     */
+    protected void cleanReleased(final int index) {
+        cleanReleased(this, index, this.releaseCleaner);
+    }
+
+    protected @NotNull T getFromSupplier() {
+        return getFromSupplier(this, this.supplier);
+    }
+
+    /**
+     * Variant of {@link #getAt(int)} taking the hooks as arguments, like the other static helpers. Specialized pools pass
+     * their static final constants, so once inlined in one of them, the calls are bound to its own hooks.
+     */
+    static <T> @NotNull T getAt(final @NotNull AbstractPool<T> pool,
+                                final int index,
+                                final @Nullable Supplier<T> supplier,
+                                final @Nullable UnaryOperator<T> cleaner) {
+        final PoolStatsRecorder stats = pool.stats;
+        if (stats != null) {
+            stats.recordHit();
+        }
+        T object = pool.pool[index];
+        if (object == null) {
+            return pool.pool[index] = createObject(supplier);
+        }
         if (cleaner != null) {
-            object = cleaner.apply(object);
+            object = PoolEvents.isSlowCleanerEnabled() ? PoolEvents.clean(pool, cleaner, object, false) :
+                    cleaner.apply(object);
             if (object == null) {
                 throw new NullObjectProvidedException("Pool cleaner produce a null object");
             }
-            return this.pool[index] = object;
+            return pool.pool[index] = object;
         }
         return object;
     }
 
-    protected @NotNull T getFromSupplier() {
-        final Supplier<T> supplier = this.supplier;
+    static <T> void cleanReleased(final @NotNull AbstractPool<T> pool,
+                                  final int index,
+                                  final @Nullable UnaryOperator<T> releaseCleaner) {
+        final T object = pool.pool[index];
+        if (releaseCleaner != null && object != null) {
+            final T cleaned = PoolEvents.isSlowCleanerEnabled() ? PoolEvents.clean(pool, releaseCleaner, object, true) :
+                    releaseCleaner.apply(object);
+            if (cleaned == null) {
+                throw new NullObjectProvidedException("Pool cleaner produce a null object");
+            }
+            pool.pool[index] = cleaned;
+        }
+    }
+
+    static <T> @NotNull T getFromSupplier(final @NotNull AbstractPool<T> pool, final @Nullable Supplier<T> supplier) {
+        final PoolStatsRecorder stats = pool.stats;
+        if (supplier == null) {
+            if (stats != null) {
+                stats.recordExhaustion();
+            }
+            if (PoolEvents.isExhaustionEnabled()) {
+                PoolEvents.exhaustion(pool);
+            }
+            throw new NoMoreObjectException();
+        }
+        if (stats != null) {
+            stats.recordSupplierFallback();
+        }
+        if (PoolEvents.isSupplierFallbackEnabled()) {
+            PoolEvents.supplierFallback(pool);
+        }
+        return createObject(supplier);
+    }
+
+    private static <T> @NotNull T createObject(final @Nullable Supplier<T> supplier) {
         if (supplier == null) {
             throw new NoMoreObjectException();
         }
@@ -69,10 +142,44 @@ abstract class AbstractPool<T> {
         return object;
     }
 
+    /**
+     * Record that {@code count} objects handed out by {@link #getAt(int)} were given back, for the high-water mark.
+     */
+    final void recordRelease(final int count) {
+        final PoolStatsRecorder stats = this.stats;
+        if (stats != null && count > 0) {
+            stats.recordRelease(count);
+        }
+    }
+
+    /**
+     * Same as {@link #recordRelease(int)}, for every object handed out.
+     */
+    final void recordReleaseAll() {
+        final PoolStatsRecorder stats = this.stats;
+        if (stats != null) {
+            stats.recordReleaseAll();
+        }
+    }
+
     public @Range(from = 0L, to = Integer.MAX_VALUE) int size() {
         return this.pool.length;
     }
 
+    public @NotNull PoolStats stats() {
+        final PoolStatsRecorder stats = this.stats;
+        final int inUse = this.inUse();
+        if (stats == null) {
+            return new PoolStats(this.size(), inUse, 0, 0L, 0L, 0L, 0L, 0L, false);
+        }
+        return stats.snapshot(this.size(), inUse);
+    }
+
+    /**
+     * @return the number of slots currently marked as used
+     */
+    abstract int inUse();
+
     public void setSupplier(final @Nullable Supplier<T> supplier) {
         this.supplier = supplier;
     }
@@ -81,4 +188,15 @@ abstract class AbstractPool<T> {
         this.cleaner = cleaner;
     }
 
+    /**
+     * Set a cleaner applied when objects are given back instead of when they are acquired.
+     */
+    void setReleaseCleaner(final @Nullable UnaryOperator<T> releaseCleaner) {
+        this.releaseCleaner = releaseCleaner;
+    }
+
+    void setStats(final @Nullable PoolStatsRecorder stats) {
+        this.stats = stats;
+    }
+
 }
\ No newline at end of file
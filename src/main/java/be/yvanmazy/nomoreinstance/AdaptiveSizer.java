@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Demand recorded by an {@link ElasticCleanablePool} over its last windows, a window being the time between two calls
+ * to {@link ElasticCleanablePool#adapt()}.
+ * <p>
+ * The demand of a window is the peak number of slots in use at the same time plus the acquisitions that found no slot.
+ * The in-use count is kept by the pool on every acquisition and release, and set back to the exact value when a window
+ * closes.
+ */
+final class AdaptiveSizer {
+
+    private final double percentile;
+    private final int[] demands; // Guarded by the pool monitor
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger overflows = new AtomicInteger();
+    private int windows; // Guarded by the pool monitor
+
+    AdaptiveSizer(final int windows, final double percentile) {
+        this.percentile = percentile;
+        this.demands = new int[windows];
+    }
+
+    void recordAcquire() {
+        final int inUse = this.inUse.incrementAndGet();
+        if (inUse > this.peak.get()) {
+            this.peak.accumulateAndGet(inUse, Math::max);
+        }
+    }
+
+    /**
+     * A slot was marked as used by the pool itself, to clean or evict it. It is in use until released, but it is not
+     * demand.
+     */
+    void recordMark() {
+        this.inUse.incrementAndGet();
+    }
+
+    void recordRelease() {
+        this.inUse.decrementAndGet();
+    }
+
+    /**
+     * Every slot was released at once by a cleanAll.
+     */
+    void recordCleanAll() {
+        this.inUse.set(0);
+    }
+
+    void recordOverflow() {
+        this.overflows.incrementAndGet();
+    }
+
+    /**
+     * Close the current window. The next one starts with the objects still in use.
+     */
+    void closeWindow(final int inUse) {
+        this.inUse.set(inUse);
+        final long demand = (long) Math.max(inUse, this.peak.getAndSet(inUse)) + this.overflows.getAndSet(0);
+        this.demands[this.windows++ % this.demands.length] = (int) Math.min(Integer.MAX_VALUE, demand);
+    }
+
+    /**
+     * @return the demand at the target percentile of the closed windows, or {@code -1} if no window was closed yet
+     */
+    int recommendedSize() {
+        final int count = Math.min(this.windows, this.demands.length);
+        if (count == 0) {
+            return -1;
+        }
+        final int[] sorted = Arrays.copyOf(this.demands, count);
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(this.percentile * count) - 1)];
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+/**
+ * Pool split into fixed-size chunks handed out to {@link Arena}s. Only opening and closing an arena touch the shared
+ * state, getting an object from an arena is a plain increment.
+ */
+public interface ArenaPool<T> {
+
+    /**
+     * Open an arena backed by a free chunk. The arena starts without chunk if the pool is exhausted.
+     */
+    @NotNull Arena<T> openArena();
+
+    @Contract(pure = true)
+    @Range(from = 0L, to = Integer.MAX_VALUE)
+    int size();
+
+    @Contract(pure = true)
+    @Range(from = 1L, to = Integer.MAX_VALUE)
+    int chunkSize();
+
+    @Contract(pure = true)
+    @NotNull PoolConcurrency poolConcurrency();
+
+    /**
+     * @return a snapshot of the usage of this pool, where the objects of every chunk owned by an arena count as used
+     */
+    @Contract("-> new")
+    @NotNull PoolStats stats();
+
+}
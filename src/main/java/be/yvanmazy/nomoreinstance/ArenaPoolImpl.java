@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Each chunk comes with a preallocated arena, returned when the chunk is the first one of an opened arena, so opening
+ * an arena does not allocate while the pool has free chunks. As the same arena is handed out again once closed, it
+ * records the thread that opened it: a late close from a previous owner must not release the chunks of the next one.
+ */
+final class ArenaPoolImpl<T> extends AbstractPool<T> implements ArenaPool<T> {
+
+    private final int chunkSize;
+    private final SlotBitmap chunks;
+    private final ArenaImpl<T>[] arenas;
+    private final PoolConcurrency concurrency;
+
+    @SuppressWarnings("unchecked")
+    ArenaPoolImpl(final @NotNull T[] pool, final int chunkSize, final @NotNull PoolConcurrency concurrency) {
+        super(pool);
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+        final int chunkCount = pool.length / chunkSize;
+        this.chunks = concurrency.isThreadSafe() ?
+                new AtomicHierarchicalBitmap(chunkCount) :
+                new HierarchicalBitmap(chunkCount);
+        this.arenas = (ArenaImpl<T>[]) new ArenaImpl<?>[chunkCount];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            this.arenas[chunk] = new ArenaImpl<>(this, chunk);
+        }
+    }
+
+    @Override
+    public @NotNull Arena<T> openArena() {
+        final int chunk = this.chunks.acquire();
+        if (chunk < 0) {
+            return new ArenaImpl<>(this, -1);
+        }
+        final ArenaImpl<T> arena = this.arenas[chunk];
+        arena.open();
+        return arena;
+    }
+
+    @Override
+    public int chunkSize() {
+        return this.chunkSize;
+    }
+
+    @Override
+    public @NotNull PoolConcurrency poolConcurrency() {
+        return this.concurrency;
+    }
+
+    @Override
+    int inUse() {
+        return this.chunks.cardinality() * this.chunkSize;
+    }
+
+    private static final class ArenaImpl<T> implements Arena<T> {
+
+        private final ArenaPoolImpl<T> owner;
+        private final int home;
+        private int[] chunks;
+        private volatile Thread openedBy;
+        private int chunkCount;
+        private int cursor;
+        private int end;
+
+        private ArenaImpl(final @NotNull ArenaPoolImpl<T> owner, final int home) {
+            this.owner = owner;
+            this.home = home;
+            this.chunks = new int[1];
+            if (home >= 0) {
+                this.chunks[0] = home;
+            } else {
+                this.chunkCount = -1;
+                this.open();
+            }
+        }
+
+        private void open() {
+            this.openedBy = Thread.currentThread();
+            if (this.home >= 0) {
+                this.chunkCount = 1;
+                this.cursor = this.home * this.owner.chunkSize;
+                this.end = this.cursor + this.owner.chunkSize;
+            } else {
+                this.chunkCount = 0;
+            }
+        }
+
+        @Override
+        public @NotNull T get() {
+            if (this.cursor >= this.end && !this.claimChunk()) {
+                return this.owner.getFromSupplier();
+            }
+            return this.owner.getAt(this.cursor++);
+        }
+
+        private boolean claimChunk() {
+            if (this.chunkCount < 0) {
+                throw new IllegalStateException("Arena is closed");
+            }
+            final int chunk = this.owner.chunks.acquire();
+            if (chunk < 0) {
+                return false;
+            }
+            if (this.chunkCount == this.chunks.length) {
+                this.chunks = Arrays.copyOf(this.chunks, this.chunkCount << 1);
+            }
+            this.chunks[this.chunkCount++] = chunk;
+            this.cursor = chunk * this.owner.chunkSize;
+            this.end = this.cursor + this.owner.chunkSize;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (this.openedBy != Thread.currentThread()) {
+                // Already closed, and maybe opened again by another thread
+                return;
+            }
+            this.openedBy = null;
+            final int count = this.chunkCount;
+            if (count < 0) {
+                return;
+            }
+            final ArenaPoolImpl<T> owner = this.owner;
+            for (int i = 0; i < count; i++) {
+                final int start = this.chunks[i] * owner.chunkSize;
+                final int end = i == count - 1 ? this.cursor : start + owner.chunkSize;
+                SweepCleanablePoolImpl.cleanUsed(owner, start, end);
+            }
+            this.chunkCount = -1;
+            this.cursor = 0;
+            this.end = 0;
+            final int from = this.home >= 0 ? 1 : 0;
+            owner.chunks.release(this.chunks, from, count, 0);
+            if (this.home >= 0) {
+                // Last, the arena can be opened again by another thread as soon as its home chunk is free
+                owner.chunks.release(this.home);
+            }
+        }
+
+    }
+
+}
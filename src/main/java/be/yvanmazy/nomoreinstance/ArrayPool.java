@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+/**
+ * Pool of primitive arrays sorted by power-of-two size classes. A rented array can be longer than requested, and any
+ * array can be released as long as its length is one of the size classes.
+ *
+ * @param <A> array type
+ */
+public interface ArrayPool<A> {
+
+    @Contract(value = "-> new", pure = true)
+    static @NotNull Builder<byte[]> bytes() {
+        return new ArrayPoolBuilder<>(ArrayType.BYTES);
+    }
+
+    @Contract(value = "-> new", pure = true)
+    static @NotNull Builder<int[]> ints() {
+        return new ArrayPoolBuilder<>(ArrayType.INTS);
+    }
+
+    @Contract(value = "-> new", pure = true)
+    static @NotNull Builder<long[]> longs() {
+        return new ArrayPoolBuilder<>(ArrayType.LONGS);
+    }
+
+    @Contract(value = "-> new", pure = true)
+    static @NotNull Builder<double[]> doubles() {
+        return new ArrayPoolBuilder<>(ArrayType.DOUBLES);
+    }
+
+    @Contract(value = "-> new", pure = true)
+    static @NotNull Builder<char[]> chars() {
+        return new ArrayPoolBuilder<>(ArrayType.CHARS);
+    }
+
+    /**
+     * Get an array of at least {@code minLength} elements. A new array is allocated if its size class is empty, or if
+     * {@code minLength} is greater than {@link #maxLength()}.
+     */
+    @NotNull A rent(final @Range(from = 0L, to = Integer.MAX_VALUE) int minLength);
+
+    /**
+     * Give an array back to its size class. Arrays whose length is not a size class, or released while their class is
+     * full, are left to the garbage collector. An array must not be used anymore once released.
+     */
+    void release(final @NotNull A array);
+
+    /**
+     * @return the length of the largest size class
+     */
+    @Contract(pure = true)
+    @Range(from = 1L, to = Integer.MAX_VALUE)
+    int maxLength();
+
+    @Contract(pure = true)
+    @NotNull PoolConcurrency poolConcurrency();
+
+    interface Builder<A> {
+
+        @Contract("_ -> this")
+        @NotNull Builder<A> concurrency(final @NotNull PoolConcurrency concurrency);
+
+        /**
+         * Maximum number of arrays kept by each size class. Default to {@code 32}.
+         */
+        @Contract("_ -> this")
+        @NotNull Builder<A> capacity(final @Range(from = 1L, to = Integer.MAX_VALUE) int capacity);
+
+        /**
+         * Length of the largest size class, rounded up to a power of two. Default to {@code 1 << 20}.
+         */
+        @Contract("_ -> this")
+        @NotNull Builder<A> maxLength(final @Range(from = 1L, to = 1L << 30) int maxLength);
+
+        /**
+         * Fill released arrays with zeros, so rented arrays are always zeroed.
+         */
+        @Contract("-> this")
+        @NotNull Builder<A> zeroOnRelease();
+
+        @Contract("-> this")
+        @NotNull Builder<A> withoutZeroing();
+
+        @Contract("-> new")
+        @NotNull ArrayPool<A> build();
+
+    }
+
+}
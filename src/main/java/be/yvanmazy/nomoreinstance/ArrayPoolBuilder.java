@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+final class ArrayPoolBuilder<A> implements ArrayPool.Builder<A> {
+
+    private final ArrayType<A> type;
+    private PoolConcurrency concurrency = PoolConcurrency.DEFAULT;
+    private int capacity = 32;
+    private int maxLength = 1 << 20;
+    private boolean zeroOnRelease;
+
+    ArrayPoolBuilder(final @NotNull ArrayType<A> type) {
+        this.type = type;
+    }
+
+    @Override
+    public ArrayPool.@NotNull Builder<A> concurrency(final @NotNull PoolConcurrency concurrency) {
+        this.concurrency = Objects.requireNonNull(concurrency, "concurrency must not be null");
+        return this;
+    }
+
+    @Override
+    public ArrayPool.@NotNull Builder<A> capacity(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        return this;
+    }
+
+    @Override
+    public ArrayPool.@NotNull Builder<A> maxLength(final int maxLength) {
+        if (maxLength < 1 || maxLength > 1 << 30) {
+            throw new IllegalArgumentException("maxLength must be between 1 and 2^30");
+        }
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    @Override
+    public ArrayPool.@NotNull Builder<A> zeroOnRelease() {
+        this.zeroOnRelease = true;
+        return this;
+    }
+
+    @Override
+    public ArrayPool.@NotNull Builder<A> withoutZeroing() {
+        this.zeroOnRelease = false;
+        return this;
+    }
+
+    @Override
+    public @NotNull ArrayPool<A> build() {
+        return new ArrayPoolImpl<>(this.type, this.concurrency, this.capacity, this.maxLength, this.zeroOnRelease);
+    }
+
+}
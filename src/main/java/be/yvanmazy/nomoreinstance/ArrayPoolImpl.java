@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Every size class stores its arrays in fixed slots tracked by two bitmaps: {@code filled} marks the slots holding (or
+ * about to hold) an array, {@code taken} marks the slots whose array is not available. Releasing an array claims an
+ * empty slot in {@code filled} then frees it in {@code taken}, renting does the opposite, so both sides only search for
+ * a clear bit. Any thread-safe concurrency uses the lock-free bitmaps.
+ */
+final class ArrayPoolImpl<A> implements ArrayPool<A> {
+
+    /**
+     * Length of the smallest size class, as a shift.
+     */
+    private static final int MIN_SHIFT = 4;
+
+    private final ArrayType<A> type;
+    private final PoolConcurrency concurrency;
+    private final SizeClass<A>[] classes;
+    private final boolean zeroOnRelease;
+
+    @SuppressWarnings("unchecked")
+    ArrayPoolImpl(final @NotNull ArrayType<A> type, final @NotNull PoolConcurrency concurrency, final int capacity,
+                  final int maxLength, final boolean zeroOnRelease) {
+        this.type = type;
+        this.concurrency = concurrency;
+        this.zeroOnRelease = zeroOnRelease;
+        this.classes = (SizeClass<A>[]) new SizeClass<?>[classIndex(maxLength) + 1];
+        for (int i = 0; i < this.classes.length; i++) {
+            this.classes[i] = new SizeClass<>(capacity, concurrency.isThreadSafe());
+        }
+    }
+
+    @Override
+    public @NotNull A rent(final int minLength) {
+        if (minLength < 0) {
+            throw new IllegalArgumentException("minLength must be positive");
+        }
+        final int index = classIndex(minLength);
+        if (index >= this.classes.length) {
+            return this.type.allocator().apply(minLength);
+        }
+        final A array = this.classes[index].poll();
+        if (array != null) {
+            return array;
+        }
+        return this.type.allocator().apply(1 << (index + MIN_SHIFT));
+    }
+
+    @Override
+    public void release(final @NotNull A array) {
+        final int length = this.type.length().applyAsInt(array);
+        if (length < 1 << MIN_SHIFT || Integer.bitCount(length) != 1) {
+            return;
+        }
+        final int index = classIndex(length);
+        if (index >= this.classes.length) {
+            return;
+        }
+        if (this.zeroOnRelease) {
+            this.type.zeroer().accept(array);
+        }
+        this.classes[index].offer(array);
+    }
+
+    @Override
+    public int maxLength() {
+        return 1 << (this.classes.length - 1 + MIN_SHIFT);
+    }
+
+    @Override
+    public @NotNull PoolConcurrency poolConcurrency() {
+        return this.concurrency;
+    }
+
+    private static int classIndex(final int length) {
+        if (length <= 1 << MIN_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_SHIFT;
+    }
+
+    private static final class SizeClass<A> {
+
+        private final Object[] arrays;
+        private final SlotBitmap filled;
+        private final SlotBitmap taken;
+
+        private SizeClass(final int capacity, final boolean threadSafe) {
+            this.arrays = new Object[capacity];
+            this.filled = threadSafe ? new AtomicHierarchicalBitmap(capacity) : new HierarchicalBitmap(capacity);
+            this.taken = threadSafe ? new AtomicHierarchicalBitmap(capacity) : new HierarchicalBitmap(capacity);
+            for (int slot = 0; slot < capacity; slot++) {
+                this.taken.trySet(slot);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private A poll() {
+            final int slot = this.taken.acquire();
+            if (slot < 0) {
+                return null;
+            }
+            final A array = (A) this.arrays[slot];
+            this.arrays[slot] = null;
+            this.filled.release(slot);
+            return array;
+        }
+
+        private void offer(final A array) {
+            final int slot = this.filled.acquire();
+            if (slot >= 0) {
+                this.arrays[slot] = array;
+                this.taken.release(slot);
+            }
+        }
+
+    }
+
+}
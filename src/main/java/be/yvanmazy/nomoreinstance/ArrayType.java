@@ -0,0 +1,50 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Operations needed by {@link ArrayPoolImpl} on a primitive array type.
+ */
+record ArrayType<A>(@NotNull IntFunction<A> allocator, @NotNull ToIntFunction<A> length, @NotNull Consumer<A> zeroer) {
+
+    static final ArrayType<byte[]> BYTES =
+            new ArrayType<>(byte[]::new, array -> array.length, array -> Arrays.fill(array, (byte) 0));
+    static final ArrayType<int[]> INTS =
+            new ArrayType<>(int[]::new, array -> array.length, array -> Arrays.fill(array, 0));
+    static final ArrayType<long[]> LONGS =
+            new ArrayType<>(long[]::new, array -> array.length, array -> Arrays.fill(array, 0L));
+    static final ArrayType<double[]> DOUBLES =
+            new ArrayType<>(double[]::new, array -> array.length, array -> Arrays.fill(array, 0D));
+    static final ArrayType<char[]> CHARS =
+            new ArrayType<>(char[]::new, array -> array.length, array -> Arrays.fill(array, '\0'));
+
+}
@@ -0,0 +1,302 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Range;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free version of {@link HierarchicalBitmap}.
+ * <p>
+ * Slot bits are authoritative, upper levels are only hints: a "full" bit is always re-checked after being published and
+ * a release clears every hint above the slot. A stale hint can make a search visit a full word, never skip a free slot
+ * for longer than a concurrent update.
+ * <p>
+ * In the padded layout, every slot word sits alone in its own 128 bytes, so threads working on different words never
+ * invalidate each other's cache lines. Upper levels stay compact, they are only written when a word fills up or gets
+ * its first free slot back.
+ */
+final class AtomicHierarchicalBitmap implements SlotBitmap {
+
+    /**
+     * Number of longs in 128 bytes: two cache lines, as adjacent-line prefetchers fetch lines in pairs.
+     */
+    private static final int PADDED_STRIDE = 16;
+
+    private final int size;
+    private final AtomicLongArray[] levels;
+    private final int leafWords;
+    private final int leafShift;
+    private final int leafOffset;
+    private PoolStatsRecorder stats;
+
+    AtomicHierarchicalBitmap(final @Range(from = 0L, to = Integer.MAX_VALUE) int size) {
+        this(size, false);
+    }
+
+    AtomicHierarchicalBitmap(final @Range(from = 0L, to = Integer.MAX_VALUE) int size, final boolean padded) {
+        this.size = size;
+        final int[] words = HierarchicalBitmap.layout(size);
+        this.leafWords = words[0];
+        this.leafShift = padded ? Integer.numberOfTrailingZeros(PADDED_STRIDE) : 0;
+        this.leafOffset = padded ? PADDED_STRIDE : 0;
+        this.levels = new AtomicLongArray[words.length];
+        // Padded leaves also get a stride before the first word and after the last one
+        this.levels[0] = new AtomicLongArray((words[0] << this.leafShift) + (this.leafOffset << 1));
+        for (int level = 1; level < words.length; level++) {
+            this.levels[level] = new AtomicLongArray(words[level]);
+        }
+        this.clear();
+    }
+
+    @Override
+    public int acquire() {
+        return this.acquire(this.levels.length - 1, 0);
+    }
+
+    private int acquire(final int level, final int wordIndex) {
+        final AtomicLongArray words = this.levels[level];
+        if (level == 0) {
+            final int leaf = this.leaf(wordIndex);
+            long current;
+            while ((current = words.get(leaf)) != -1L) {
+                final long bit = Long.lowestOneBit(~current);
+                final long next = current | bit;
+                if (words.compareAndSet(leaf, current, next)) {
+                    if (next == -1L) {
+                        this.markFull(1, wordIndex);
+                    }
+                    return (wordIndex << 6) | Long.numberOfTrailingZeros(bit);
+                }
+                this.recordCasRetry();
+            }
+            return -1;
+        }
+        long visited = 0L;
+        long current;
+        while ((current = words.get(wordIndex) | visited) != -1L) {
+            final long bit = Long.lowestOneBit(~current);
+            final int slot = this.acquire(level - 1, (wordIndex << 6) | Long.numberOfTrailingZeros(bit));
+            if (slot >= 0) {
+                return slot;
+            }
+            visited |= bit;
+        }
+        return -1;
+    }
+
+    @Override
+    public int acquire(final int[] slots, final int from, final int to, final int base) {
+        return this.acquire(this.levels.length - 1, 0, slots, from, to, base);
+    }
+
+    private int acquire(final int level, final int wordIndex, final int[] slots, final int from, final int to,
+                        final int base) {
+        final AtomicLongArray words = this.levels[level];
+        if (level == 0) {
+            final int leaf = this.leaf(wordIndex);
+            long current;
+            while ((current = words.get(leaf)) != -1L) {
+                final long claimed = HierarchicalBitmap.lowestBits(~current, to - from);
+                final long next = current | claimed;
+                if (words.compareAndSet(leaf, current, next)) {
+                    if (next == -1L) {
+                        this.markFull(1, wordIndex);
+                    }
+                    return HierarchicalBitmap.store(slots, from, wordIndex, claimed, base);
+                }
+                this.recordCasRetry();
+            }
+            return from;
+        }
+        int position = from;
+        long visited = 0L;
+        long current;
+        while (position < to && (current = words.get(wordIndex) | visited) != -1L) {
+            final long bit = Long.lowestOneBit(~current);
+            position = this.acquire(level - 1, (wordIndex << 6) | Long.numberOfTrailingZeros(bit), slots, position, to,
+                    base);
+            visited |= bit;
+        }
+        return position;
+    }
+
+    @Override
+    public boolean trySet(final int slot) {
+        final AtomicLongArray leaves = this.levels[0];
+        final int wordIndex = slot >>> 6;
+        final int leaf = this.leaf(wordIndex);
+        final long bit = 1L << slot;
+        long current = leaves.get(leaf);
+        while ((current & bit) == 0L) {
+            final long next = current | bit;
+            if (leaves.compareAndSet(leaf, current, next)) {
+                if (next == -1L) {
+                    this.markFull(1, wordIndex);
+                }
+                return true;
+            }
+            this.recordCasRetry();
+            current = leaves.get(leaf);
+        }
+        return false;
+    }
+
+    @Override
+    public void release(final int slot) {
+        final AtomicLongArray leaves = this.levels[0];
+        final int wordIndex = slot >>> 6;
+        final int leaf = this.leaf(wordIndex);
+        final long bit = 1L << slot;
+        long current = leaves.get(leaf);
+        while ((current & bit) != 0L) {
+            if (leaves.compareAndSet(leaf, current, current & ~bit)) {
+                this.clearFull(1, wordIndex);
+                return;
+            }
+            this.recordCasRetry();
+            current = leaves.get(leaf);
+        }
+    }
+
+    @Override
+    public void release(final int[] slots, final int from, final int to, final int base) {
+        final AtomicLongArray leaves = this.levels[0];
+        int position = from;
+        while (position < to) {
+            final int wordIndex = (slots[position] - base) >>> 6;
+            long mask = 0L;
+            int slot;
+            while (position < to && ((slot = slots[position] - base) >>> 6) == wordIndex) {
+                mask |= 1L << slot;
+                position++;
+            }
+            final int leaf = this.leaf(wordIndex);
+            long current = leaves.get(leaf);
+            while ((current & mask) != 0L) {
+                if (leaves.compareAndSet(leaf, current, current & ~mask)) {
+                    this.clearFull(1, wordIndex);
+                    break;
+                }
+                this.recordCasRetry();
+                current = leaves.get(leaf);
+            }
+        }
+    }
+
+    @Override
+    public boolean isSet(final int slot) {
+        return (this.levels[0].get(this.leaf(slot >>> 6)) & (1L << slot)) != 0L;
+    }
+
+    @Override
+    public int cardinality() {
+        final AtomicLongArray leaves = this.levels[0];
+        int count = 0;
+        for (int i = 0; i < this.leafWords; i++) {
+            count += Long.bitCount(leaves.get(this.leaf(i)));
+        }
+        return count - Long.bitCount(HierarchicalBitmap.tailMask(this.size));
+    }
+
+    @Override
+    public void clear() {
+        final AtomicLongArray leaves = this.levels[0];
+        final int lastLeaf = this.leafWords - 1;
+        for (int i = 0; i < lastLeaf; i++) {
+            leaves.set(this.leaf(i), 0L);
+        }
+        leaves.set(this.leaf(lastLeaf), HierarchicalBitmap.tailMask(this.size));
+        int bits = this.leafWords;
+        for (int level = 1; level < this.levels.length; level++) {
+            final AtomicLongArray words = this.levels[level];
+            final int last = words.length() - 1;
+            for (int i = 0; i < last; i++) {
+                words.set(i, 0L);
+            }
+            words.set(last, HierarchicalBitmap.tailMask(bits));
+            bits = words.length();
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    void setStats(final PoolStatsRecorder stats) {
+        this.stats = stats;
+    }
+
+    private int leaf(final int wordIndex) {
+        return (wordIndex << this.leafShift) + this.leafOffset;
+    }
+
+    private void recordCasRetry() {
+        final PoolStatsRecorder stats = this.stats;
+        if (stats != null) {
+            stats.recordCasRetry();
+        }
+    }
+
+    private void markFull(final int fromLevel, final int fromChild) {
+        int child = fromChild;
+        for (int level = fromLevel; level < this.levels.length; level++) {
+            final AtomicLongArray words = this.levels[level];
+            final int wordIndex = child >>> 6;
+            final long bit = 1L << child;
+            long current, next;
+            do {
+                current = words.get(wordIndex);
+                next = current | bit;
+            } while (current != next && !words.compareAndSet(wordIndex, current, next));
+            if (this.levels[level - 1].get(level == 1 ? this.leaf(child) : child) != -1L) {
+                // The child got a free bit while the hint was published, undo it
+                this.clearFull(level, child);
+                return;
+            }
+            if (next != -1L) {
+                return;
+            }
+            child = wordIndex;
+        }
+    }
+
+    private void clearFull(final int fromLevel, final int fromChild) {
+        int child = fromChild;
+        for (int level = fromLevel; level < this.levels.length; level++) {
+            final AtomicLongArray words = this.levels[level];
+            final int wordIndex = child >>> 6;
+            final long bit = 1L << child;
+            long current;
+            do {
+                current = words.get(wordIndex);
+            } while ((current & bit) != 0L && !words.compareAndSet(wordIndex, current, current & ~bit));
+            child = wordIndex;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pool of direct {@link ByteBuffer}s carved out of large slabs. Each size class allocates a single direct buffer at
+ * build time and slices it into fixed-size chunks, tracked by a {@link CleanablePool}.
+ */
+public interface BufferPool {
+
+    @Contract(value = "-> new", pure = true)
+    static @NotNull Builder newBuilder() {
+        return new BufferPoolBuilder();
+    }
+
+    /**
+     * Lease a cleared chunk of at least {@code minCapacity} bytes from the smallest size class that has a free chunk.
+     * When every fitting class is exhausted, or no class is large enough, a new direct buffer is allocated and is not
+     * given back to the pool when closed.
+     */
+    @NotNull Cleanable<ByteBuffer> lease(final @Range(from = 0L, to = Integer.MAX_VALUE) int minCapacity);
+
+    /**
+     * @return the chunk size of the largest size class
+     */
+    @Contract(pure = true)
+    int maxChunkSize();
+
+    @Contract(pure = true)
+    @NotNull PoolConcurrency poolConcurrency();
+
+    interface Builder {
+
+        @Contract("_ -> this")
+        @NotNull Builder concurrency(final @NotNull PoolConcurrency concurrency);
+
+        /**
+         * Add a size class of {@code chunkCount} chunks of {@code chunkSize} bytes, replacing any class of the same chunk
+         * size. The whole class is allocated as one direct buffer, so its total size must fit in an {@code int}.
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder sizeClass(final @Range(from = 1L, to = Integer.MAX_VALUE) int chunkSize,
+                                   final @Range(from = 1L, to = Integer.MAX_VALUE) int chunkCount);
+
+        @Contract("-> new")
+        @NotNull BufferPool build();
+
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.TreeMap;
+
+final class BufferPoolBuilder implements BufferPool.Builder {
+
+    private final TreeMap<Integer, Integer> sizeClasses = new TreeMap<>();
+    private PoolConcurrency concurrency = PoolConcurrency.DEFAULT;
+
+    @Override
+    public BufferPool.@NotNull Builder concurrency(final @NotNull PoolConcurrency concurrency) {
+        this.concurrency = Objects.requireNonNull(concurrency, "concurrency must not be null");
+        return this;
+    }
+
+    @Override
+    public BufferPool.@NotNull Builder sizeClass(final int chunkSize, final int chunkCount) {
+        if (chunkSize < 1 || chunkCount < 1) {
+            throw new IllegalArgumentException("chunkSize and chunkCount must be positive");
+        }
+        if ((long) chunkSize * chunkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A size class must not exceed " + Integer.MAX_VALUE + " bytes");
+        }
+        this.sizeClasses.put(chunkSize, chunkCount);
+        return this;
+    }
+
+    @Override
+    public @NotNull BufferPool build() {
+        if (this.sizeClasses.isEmpty()) {
+            throw new IllegalStateException("At least one size class is required");
+        }
+        final int[] chunkSizes = new int[this.sizeClasses.size()];
+        final int[] chunkCounts = new int[chunkSizes.length];
+        int i = 0;
+        for (final var entry : this.sizeClasses.entrySet()) {
+            chunkSizes[i] = entry.getKey();
+            chunkCounts[i++] = entry.getValue();
+        }
+        return new BufferPoolImpl(chunkSizes, chunkCounts, this.concurrency);
+    }
+
+}
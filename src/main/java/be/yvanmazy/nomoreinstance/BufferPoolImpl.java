@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Every chunk has a preallocated handle, so leasing a chunk does not allocate. Chunks are reset when they are given
+ * back, a handle must then be closed only once.
+ */
+final class BufferPoolImpl implements BufferPool {
+
+    private final int[] chunkSizes;
+    private final CleanablePool<ByteBuffer>[] classes;
+    private final Cleanable<ByteBuffer>[][] handles;
+    private final PoolConcurrency concurrency;
+
+    @SuppressWarnings("unchecked")
+    BufferPoolImpl(final int @NotNull [] chunkSizes, final int @NotNull [] chunkCounts,
+                   final @NotNull PoolConcurrency concurrency) {
+        this.chunkSizes = chunkSizes;
+        this.concurrency = concurrency;
+        this.classes = (CleanablePool<ByteBuffer>[]) new CleanablePool<?>[chunkSizes.length];
+        this.handles = (Cleanable<ByteBuffer>[][]) new Cleanable<?>[chunkSizes.length][];
+        for (int i = 0; i < chunkSizes.length; i++) {
+            final ByteBuffer[] chunks = slice(chunkSizes[i], chunkCounts[i]);
+            final CleanablePool<ByteBuffer> pool = Pool.<ByteBuffer>newBuilder()
+                    .concurrency(concurrency)
+                    .cleaner(buffer -> buffer.clear().order(ByteOrder.BIG_ENDIAN))
+                    .cleanOnRelease()
+                    .build(chunks);
+            final Cleanable<ByteBuffer>[] handles = (Cleanable<ByteBuffer>[]) new Cleanable<?>[chunks.length];
+            for (int index = 1; index <= chunks.length; index++) {
+                handles[index - 1] = new CleanableImpl<>(pool, index, chunks[index - 1]);
+            }
+            this.classes[i] = pool;
+            this.handles[i] = handles;
+        }
+    }
+
+    @Override
+    public @NotNull Cleanable<ByteBuffer> lease(final int minCapacity) {
+        if (minCapacity < 0) {
+            throw new IllegalArgumentException("minCapacity must be positive");
+        }
+        final int[] chunkSizes = this.chunkSizes;
+        for (int i = 0; i < chunkSizes.length; i++) {
+            if (chunkSizes[i] < minCapacity) {
+                continue;
+            }
+            final CleanablePool<ByteBuffer> pool = this.classes[i];
+            final int index = pool.acquireIndex();
+            if (index != CleanablePool.NO_INDEX) {
+                return this.handles[i][index - 1];
+            }
+        }
+        return new IgnoredCleanable<>(ByteBuffer.allocateDirect(minCapacity));
+    }
+
+    @Override
+    public int maxChunkSize() {
+        return this.chunkSizes[this.chunkSizes.length - 1];
+    }
+
+    @Override
+    public @NotNull PoolConcurrency poolConcurrency() {
+        return this.concurrency;
+    }
+
+    private static @NotNull ByteBuffer @NotNull [] slice(final int chunkSize, final int chunkCount) {
+        final ByteBuffer slab = ByteBuffer.allocateDirect(chunkSize * chunkCount);
+        final ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i] = slab.slice(i * chunkSize, chunkSize);
+        }
+        return chunks;
+    }
+
+}
@@ -26,16 +26,99 @@ package be.yvanmazy.nomoreinstance;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public interface CleanablePool<T> extends Pool<Cleanable<T>> {
 
+    /**
+     * Index returned by {@link #acquireIndex()} when every slot is in use.
+     */
+    int NO_INDEX = -1;
+
     default void peek(final @NotNull Consumer<T> consumer) {
         try (final Cleanable<T> cleanable = this.get()) {
             consumer.accept(cleanable.value());
         }
     }
 
+    /**
+     * Acquire a slot without allocating a {@link Cleanable}. The cleaner is applied before returning, and the slot must
+     * be given back with {@link #release(int)}. The supplier is never used: the caller decides what to do when the pool
+     * is exhausted.
+     *
+     * @return the index of the acquired slot, or {@link #NO_INDEX} if every slot is in use
+     */
+    int acquireIndex();
+
+    /**
+     * Acquire up to {@code count} slots at once and store their indices at the start of {@code indices}. This behaves
+     * like {@link #acquireIndex()} called in a loop, but free slots are claimed a whole bitmap word at a time.
+     *
+     * @return the number of acquired slots, lower than {@code count} if the pool ran out
+     */
+    int acquireIndices(final int @NotNull [] indices, final int count);
+
+    /**
+     * Batch version of {@link #get()} storing the objects at the start of {@code cleanables}. Unlike {@link #get()}, the
+     * supplier is never used.
+     *
+     * @return the number of acquired objects, lower than {@code count} if the pool ran out
+     */
+    int acquire(final int count, final @NotNull Cleanable<T> @NotNull [] cleanables);
+
+    /**
+     * Release the first {@code count} indices of the array, clearing them a whole bitmap word at a time when possible.
+     */
+    void release(final int @NotNull [] indices, final int count);
+
+    /**
+     * @param index an index returned by {@link #acquireIndex()} and not released yet
+     * @return the object held by the slot
+     */
+    @NotNull T valueAt(final int index);
+
+    /**
+     * Same as {@link #clean(int)}, except that {@link #NO_INDEX} is ignored.
+     */
+    default void release(final int index) {
+        if (index != NO_INDEX) {
+            this.clean(index);
+        }
+    }
+
+    /**
+     * Acquire an object, waiting until a slot is released if every slot is in use. The supplier is never used.
+     *
+     * @throws be.yvanmazy.nomoreinstance.exception.AcquireTimeoutException if no slot was released before the timeout
+     * @throws InterruptedException                                        if the thread is interrupted while waiting
+     */
+    @NotNull Cleanable<T> acquire(final @NotNull Duration timeout) throws InterruptedException;
+
+    /**
+     * Acquire an object, waiting as long as needed until a slot is released. The supplier is never used.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    @NotNull Cleanable<T> acquireInterruptibly() throws InterruptedException;
+
+    /**
+     * Acquire an object without blocking. The returned future is already completed if a slot is free, otherwise it is
+     * completed by the thread releasing the next slot, so dependent stages should be light or use an executor.
+     * Cancelling the future gives up its place in the queue. The supplier is never used.
+     */
+    @NotNull CompletableFuture<Cleanable<T>> acquireAsync();
+
+    /**
+     * Drop the objects of the free slots left unused for longer than the idle time given to
+     * {@link Pool.Builder#evictIdle(java.time.Duration)}. They are recreated by the supplier on their next use. Meant to
+     * be called periodically, from the owning thread if the pool is not thread-safe.
+     *
+     * @return the number of evicted objects, always {@code 0} without idle eviction
+     */
+    int evictIdle();
+
     void clean(final int index);
 
     void cleanAll();
@@ -24,11 +24,20 @@
 
 package be.yvanmazy.nomoreinstance;
 
+import be.yvanmazy.nomoreinstance.exception.AcquireTimeoutException;
 import org.jetbrains.annotations.NotNull;
 
-abstract sealed class CleanablePoolImpl<T> extends AbstractPool<T> implements CleanablePool<T> permits LongArrayCleanablePoolImpl, LongArrayCleanablePoolImpl.LockFree, LongCleanablePoolImpl, LongCleanablePoolImpl.LockFree {
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
 
-    static <T> CleanablePoolImpl<T> build(final @NotNull T[] pool, final @NotNull PoolConcurrency concurrency) {
+abstract sealed class CleanablePoolImpl<T> extends AbstractPool<T> implements CleanablePool<T> permits LongArrayCleanablePoolImpl, LongArrayCleanablePoolImpl.LockFree, LongCleanablePoolImpl, LongCleanablePoolImpl.LockFree, MagazineCleanablePoolImpl, StripedCleanablePoolImpl, ElasticCleanablePoolImpl, DelegatingCleanablePoolImpl {
+
+    static <T> CleanablePoolImpl<T> build(final @NotNull T[] pool, final @NotNull PoolConcurrency concurrency,
+                                          final boolean padded) {
         final boolean small = pool.length <= 64;
         return switch (concurrency) {
             case NOT_CONCURRENT -> {
@@ -47,16 +56,447 @@ abstract sealed class CleanablePoolImpl<T> extends AbstractPool<T> implements Cl
                 if (small) {
                     yield new LongCleanablePoolImpl.LockFree<>(pool);
                 }
-                yield new LongArrayCleanablePoolImpl.LockFree<>(pool);
+                yield new LongArrayCleanablePoolImpl.LockFree<>(pool, padded);
             }
+            case STRIPED -> new StripedCleanablePoolImpl<>(pool);
         };
     }
 
+    /**
+     * Indices claimed by {@link #acquire(int, Cleanable[])}, one bitmap word at a time. It is taken out while in use, so
+     * a cleaner acquiring from another pool gets its own buffer.
+     */
+    private static final ThreadLocal<int[]> SCRATCH_INDICES = ThreadLocal.withInitial(() -> new int[64]);
+
+    private final WaitQueue waiters = new WaitQueue();
+    private boolean fairAcquire;
+    private LeakTracker leakTracker;
+    private IdleEvictor<T> idleEvictor;
+    private Executor cleanExecutor;
+    private Runnable[] cleanTasks;
+
     CleanablePoolImpl(final @NotNull T[] pool) {
         super(pool);
     }
 
+    CleanablePoolImpl(final @NotNull T[] pool, final boolean lazy) {
+        super(pool, lazy);
+    }
+
+    @Override
+    public @NotNull Cleanable<T> get() {
+        final PoolEvents.SlowAcquireEvent event = PoolEvents.beginAcquire();
+        final int slot = this.nextSlot();
+        final Cleanable<T> cleanable =
+                slot < 0 ? this.wrapIgnore(this.getFromSupplier()) : this.wrap(slot + 1, this.getAt(slot));
+        if (event != null) {
+            PoolEvents.endAcquire(event, this);
+        }
+        return cleanable;
+    }
+
+    @Override
+    public int acquireIndex() {
+        final int slot = this.nextSlot();
+        if (slot < 0) {
+            final PoolStatsRecorder stats = this.stats;
+            if (stats != null) {
+                stats.recordMiss();
+            }
+            return NO_INDEX;
+        }
+        this.getAt(slot);
+        return slot + 1;
+    }
+
+    @Override
+    public int acquireIndices(final int @NotNull [] indices, final int count) {
+        Objects.checkFromIndexSize(0, count, indices.length);
+        final int acquired = this.acquireSlots(indices, 0, count);
+        for (int i = 0; i < acquired; i++) {
+            this.getAt(indices[i] - 1);
+        }
+        if (acquired < count) {
+            final PoolStatsRecorder stats = this.stats;
+            if (stats != null) {
+                stats.recordMiss();
+            }
+        }
+        return acquired;
+    }
+
+    @Override
+    public int acquire(final int count, final @NotNull Cleanable<T> @NotNull [] cleanables) {
+        Objects.checkFromIndexSize(0, count, cleanables.length);
+        int[] indices = SCRATCH_INDICES.get();
+        if (indices == null) {
+            indices = new int[64];
+        } else {
+            SCRATCH_INDICES.set(null);
+        }
+        int acquired = 0;
+        try {
+            while (acquired < count) {
+                final int batch = Math.min(indices.length, count - acquired);
+                final int claimed = this.acquireSlots(indices, 0, batch);
+                for (int i = 0; i < claimed; i++) {
+                    final int index = indices[i];
+                    cleanables[acquired++] = this.wrap(index, this.getAt(index - 1));
+                }
+                if (claimed < batch) {
+                    final PoolStatsRecorder stats = this.stats;
+                    if (stats != null) {
+                        stats.recordMiss();
+                    }
+                    break;
+                }
+            }
+        } finally {
+            SCRATCH_INDICES.set(indices);
+        }
+        return acquired;
+    }
+
+    @Override
+    public void release(final int @NotNull [] indices, final int count) {
+        Objects.checkFromIndexSize(0, count, indices.length);
+        if (this.waiters.hasWaiters() || this.releaseCleaner != null) {
+            for (int i = 0; i < count; i++) {
+                this.clean(indices[i]);
+            }
+            return;
+        }
+        final IdleEvictor<T> idleEvictor = this.idleEvictor;
+        if (idleEvictor != null) {
+            final long now = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                idleEvictor.touch(indices[i] - 1, now);
+            }
+        }
+        this.recordRelease(count);
+        this.releaseSlots(indices, 0, count);
+        this.wakeWaiters();
+    }
+
+    @Override
+    public int evictIdle() {
+        final IdleEvictor<T> idleEvictor = this.idleEvictor;
+        return idleEvictor != null ? idleEvictor.evict(this) : 0;
+    }
+
+    @Override
+    public @NotNull T valueAt(final int index) {
+        return this.pool[index - 1];
+    }
+
+    @Override
+    public @NotNull Cleanable<T> acquire(final @NotNull Duration timeout) throws InterruptedException {
+        final long nanos = Objects.requireNonNull(timeout, "timeout must not be null").toNanos();
+        final PoolEvents.SlowAcquireEvent event = PoolEvents.beginAcquire();
+        final int slot = this.awaitSlot(true, nanos);
+        final Cleanable<T> cleanable = this.wrap(slot + 1, this.getAt(slot));
+        if (event != null) {
+            PoolEvents.endAcquire(event, this);
+        }
+        return cleanable;
+    }
+
+    @Override
+    public @NotNull Cleanable<T> acquireInterruptibly() throws InterruptedException {
+        final PoolEvents.SlowAcquireEvent event = PoolEvents.beginAcquire();
+        final int slot = this.awaitSlot(false, 0L);
+        final Cleanable<T> cleanable = this.wrap(slot + 1, this.getAt(slot));
+        if (event != null) {
+            PoolEvents.endAcquire(event, this);
+        }
+        return cleanable;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Cleanable<T>> acquireAsync() {
+        if (!this.fairAcquire || !this.waiters.hasWaiters()) {
+            final int slot = this.nextSlot();
+            if (slot >= 0) {
+                return CompletableFuture.completedFuture(this.wrap(slot + 1, this.getAt(slot)));
+            }
+        }
+        final FutureWaiter waiter = new FutureWaiter();
+        this.waiters.add(waiter);
+        this.transferToWaiters();
+        return waiter.future;
+    }
+
+    @Override
+    public void clean(final int index) {
+        final int slot = index - 1;
+        this.recordRelease(1);
+        final IdleEvictor<T> idleEvictor = this.idleEvictor;
+        if (idleEvictor != null) {
+            idleEvictor.touch(slot);
+        }
+        if (this.releaseCleaner == null) {
+            this.free(slot);
+            return;
+        }
+        final Executor cleanExecutor = this.cleanExecutor;
+        if (cleanExecutor != null) {
+            try {
+                cleanExecutor.execute(this.cleanTasks[slot]);
+                return;
+            } catch (final RejectedExecutionException ignored) {
+                // Clean on the releasing thread instead
+            }
+        }
+        this.cleanAndFree(slot);
+    }
+
+    private void cleanAndFree(final int slot) {
+        try {
+            this.cleanReleased(slot);
+        } finally {
+            this.free(slot);
+        }
+    }
+
+    /**
+     * Give a slot to the oldest waiter, or back to the pool.
+     */
+    private void free(final int slot) {
+        if (!this.waiters.offer(slot)) {
+            this.releaseSlot(slot);
+            // A waiter may have been queued after the offer without seeing the released slot
+            this.wakeWaiters();
+        }
+    }
+
+    private int awaitSlot(final boolean timed, final long nanos) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        final WaitQueue waiters = this.waiters;
+        if (!this.fairAcquire || !waiters.hasWaiters()) {
+            final int slot = this.nextSlot();
+            if (slot >= 0) {
+                return slot;
+            }
+        }
+        final WaitQueue.ParkingWaiter waiter = new WaitQueue.ParkingWaiter(Thread.currentThread());
+        waiters.add(waiter);
+        this.transferToWaiters();
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        while (true) {
+            final int slot = waiter.slot();
+            if (slot >= 0) {
+                return slot;
+            }
+            if (timed) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return this.cancel(waiter, false);
+                }
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                LockSupport.park(this);
+            }
+            if (Thread.interrupted()) {
+                return this.cancel(waiter, true);
+            }
+        }
+    }
+
+    private int cancel(final WaitQueue.Waiter waiter, final boolean interrupted) throws InterruptedException {
+        if (waiter.cancel()) {
+            this.waiters.remove(waiter);
+            if (interrupted) {
+                throw new InterruptedException();
+            }
+            throw new AcquireTimeoutException();
+        }
+        // A slot was handed over at the same time, keep it
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return waiter.slot();
+    }
+
+    /**
+     * Hand free slots to the waiters, oldest first, until one of them runs out.
+     */
+    private void transferToWaiters() {
+        final WaitQueue waiters = this.waiters;
+        while (waiters.hasWaiters()) {
+            final int slot = this.nextSlot();
+            if (slot < 0) {
+                return;
+            }
+            if (!waiters.offer(slot)) {
+                this.releaseSlot(slot);
+            }
+        }
+    }
+
+    /**
+     * Hand free slots to the waiting threads.
+     */
+    void wakeWaiters() {
+        if (this.waiters.hasWaiters()) {
+            this.transferToWaiters();
+        }
+    }
+
+    /**
+     * Called by every {@link #cleanAll()} implementation before its slots are released. With a release cleaner, the
+     * objects still in use have not been cleaned yet and would be handed out dirty, so they are cleaned here. Free
+     * slots are marked as used while the pool is scanned, cleanAll releases them right after.
+     */
+    void beforeCleanAll() {
+        if (this.releaseCleaner == null) {
+            return;
+        }
+        for (int slot = 0; slot < this.pool.length; slot++) {
+            if (!this.trySetSlot(slot)) {
+                this.cleanReleased(slot);
+            }
+        }
+    }
+
+    /**
+     * Called by every {@link #cleanAll()} implementation once its slots are released.
+     */
+    void afterCleanAll() {
+        this.recordReleaseAll();
+        final LeakTracker leakTracker = this.leakTracker;
+        if (leakTracker != null) {
+            leakTracker.newGeneration();
+        }
+        final IdleEvictor<T> idleEvictor = this.idleEvictor;
+        if (idleEvictor != null) {
+            idleEvictor.touchAll();
+        }
+        this.wakeWaiters();
+    }
+
+    void setFairAcquire(final boolean fairAcquire) {
+        this.fairAcquire = fairAcquire;
+    }
+
+    void setLeakTracker(final LeakTracker leakTracker) {
+        this.leakTracker = leakTracker;
+    }
+
+    void setIdleEvictor(final IdleEvictor<T> idleEvictor) {
+        this.idleEvictor = idleEvictor;
+    }
+
+    void setCleanExecutor(final Executor cleanExecutor) {
+        // Allocated once, a slot has at most one pending task since it stays in use until it is cleaned
+        final Runnable[] cleanTasks = new Runnable[this.pool.length];
+        for (int slot = 0; slot < cleanTasks.length; slot++) {
+            final int taskSlot = slot;
+            cleanTasks[slot] = () -> this.cleanAndFree(taskSlot);
+        }
+        this.cleanTasks = cleanTasks;
+        this.cleanExecutor = cleanExecutor;
+    }
+
+    private final class FutureWaiter extends WaitQueue.Waiter {
+
+        private final CompletableFuture<Cleanable<T>> future = new CompletableFuture<>();
+
+        private FutureWaiter() {
+            this.future.whenComplete((cleanable, throwable) -> {
+                if (throwable != null && this.cancel()) {
+                    CleanablePoolImpl.this.waiters.remove(this);
+                }
+            });
+        }
+
+        @Override
+        void onSlot(final int slot) {
+            final Cleanable<T> cleanable;
+            try {
+                cleanable = CleanablePoolImpl.this.wrap(slot + 1, CleanablePoolImpl.this.getAt(slot));
+            } catch (final RuntimeException e) {
+                CleanablePoolImpl.this.clean(slot + 1);
+                this.future.completeExceptionally(e);
+                return;
+            }
+            if (!this.future.complete(cleanable)) {
+                // The future was cancelled at the same time, give the slot back
+                CleanablePoolImpl.this.clean(slot + 1);
+            }
+        }
+
+    }
+
+    /**
+     * Mark the first free slot as used.
+     *
+     * @return the zero-based slot, or {@code -1} if every slot is in use
+     */
+    abstract int acquireSlot();
+
+    abstract void releaseSlot(final int slot);
+
+    /**
+     * Release a slot so that every thread can acquire it, even when the pool keeps per-thread caches. Used by the
+     * maintenance tasks, which may not run on the threads using the pool.
+     */
+    void releaseShared(final int slot) {
+        this.releaseSlot(slot);
+    }
+
+    /**
+     * Mark a specific slot as used.
+     *
+     * @return {@code false} if the slot was already used
+     */
+    abstract boolean trySetSlot(final int slot);
+
+    /**
+     * Same as {@link #acquireSlot()}, except that the slots of the leaks found by the leak tracker are released when
+     * the pool looks exhausted.
+     */
+    private int nextSlot() {
+        final int slot = this.acquireSlot();
+        final LeakTracker leakTracker = this.leakTracker;
+        if (slot < 0 && leakTracker != null && leakTracker.releaseLeaks(this)) {
+            return this.acquireSlot();
+        }
+        return slot;
+    }
+
+    /**
+     * Acquire free slots and store them as one-based indices, from {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @return the position after the last stored index
+     */
+    int acquireSlots(final int[] indices, final int from, final int to) {
+        int position = from;
+        while (position < to) {
+            final int slot = this.acquireSlot();
+            if (slot < 0) {
+                break;
+            }
+            indices[position++] = slot + 1;
+        }
+        return position;
+    }
+
+    /**
+     * Release the one-based indices stored from {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    void releaseSlots(final int[] indices, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            this.releaseSlot(indices[i] - 1);
+        }
+    }
+
     protected Cleanable<T> wrap(final int index, final T object) {
+        final LeakTracker leakTracker = this.leakTracker;
+        if (leakTracker != null && leakTracker.sample()) {
+            return leakTracker.track(this, index, object);
+        }
         return new CleanableImpl<>(this, index, object);
     }
 
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link CleanablePool} taking its slots from another pool. Not sealed so that {@link PoolSpecializer} can define
+ * subclasses at runtime.
+ */
+non-sealed abstract class DelegatingCleanablePoolImpl<T> extends CleanablePoolImpl<T> {
+
+    private final CleanablePoolImpl<T> delegate;
+
+    DelegatingCleanablePoolImpl(final @NotNull CleanablePoolImpl<T> delegate) {
+        super(delegate.pool);
+        this.delegate = delegate;
+    }
+
+    @Override
+    int acquireSlot() {
+        return this.delegate.acquireSlot();
+    }
+
+    @Override
+    void releaseSlot(final int slot) {
+        this.delegate.releaseSlot(slot);
+    }
+
+    @Override
+    boolean trySetSlot(final int slot) {
+        return this.delegate.trySetSlot(slot);
+    }
+
+    @Override
+    int acquireSlots(final int[] indices, final int from, final int to) {
+        return this.delegate.acquireSlots(indices, from, to);
+    }
+
+    @Override
+    void releaseSlots(final int[] indices, final int from, final int to) {
+        this.delegate.releaseSlots(indices, from, to);
+    }
+
+    @Override
+    public void cleanAll() {
+        this.beforeCleanAll();
+        this.delegate.cleanAll();
+        this.afterCleanAll();
+    }
+
+    @Override
+    int inUse() {
+        return this.delegate.inUse();
+    }
+
+    @Override
+    void setStats(final PoolStatsRecorder stats) {
+        super.setStats(stats);
+        this.delegate.setStats(stats);
+    }
+
+    @Override
+    public @NotNull PoolConcurrency poolConcurrency() {
+        return this.delegate.poolConcurrency();
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Range;
+
+/**
+ * {@link CleanablePool} whose number of slots can change while it is used. When every slot is in use, the pool grows
+ * instead of handing out an object that would be thrown away, until {@link #maxSize()} is reached. New slots are filled
+ * by the supplier when they are first acquired.
+ * <p>
+ * {@link #size()} returns the current number of slots.
+ */
+public interface ElasticCleanablePool<T> extends CleanablePool<T> {
+
+    @Contract(pure = true)
+    @Range(from = 0L, to = Integer.MAX_VALUE)
+    int maxSize();
+
+    /**
+     * Change the number of slots. Objects of removed slots are dropped as soon as they are free: slots still in use are
+     * removed when they are released.
+     *
+     * @param size the new number of slots, between {@code 0} and {@link #maxSize()}
+     */
+    void resize(final @Range(from = 0L, to = Integer.MAX_VALUE) int size);
+
+    /**
+     * Close the current demand window and resize the pool toward {@link #recommendedSize()}. The pool grows to the
+     * recommended size at once, but only shrinks halfway toward it. The pool never calls it by itself: callers must
+     * call it periodically, for example from a scheduled executor, the period being the window length.
+     *
+     * @return the new size, always the current size without {@link Pool.Builder#adaptiveSizing(int, double)}
+     */
+    int adapt();
+
+    /**
+     * @return the demand at the target percentile of the last windows, capped to {@link #maxSize()}. It can be used as
+     * the initial size in the configuration. The current size until a window has been closed by {@link #adapt()}
+     */
+    @Contract(pure = true)
+    @Range(from = 0L, to = Integer.MAX_VALUE)
+    int recommendedSize();
+
+}
@@ -0,0 +1,274 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.BitSet;
+
+/**
+ * The backing array always has {@link #maxSize()} slots. Slots beyond the current size are "reserved": their bit stays
+ * set in the bitmap so they are never acquired, and their object is dropped.
+ * <p>
+ * Acquisition and release stay lock-free for {@link PoolConcurrency#LOCK_FREE} pools. Only resizing, growing on
+ * overflow and reserving a slot released after a shrink take the pool monitor.
+ */
+sealed class ElasticCleanablePoolImpl<T> extends CleanablePoolImpl<T> implements ElasticCleanablePool<T> permits ElasticCleanablePoolImpl.Synchronized {
+
+    private static final int MIN_GROWTH = 8;
+
+    private final SlotBitmap dirty;
+    private final PoolConcurrency concurrency;
+    private final BitSet reserved; // Guarded by this
+    private volatile int size;
+    private AdaptiveSizer sizer;
+
+    static <T> ElasticCleanablePoolImpl<T> build(final @NotNull T[] pool, final int size, final @NotNull PoolConcurrency concurrency,
+                                                 final boolean padded) {
+        return switch (concurrency) {
+            case NOT_CONCURRENT -> new ElasticCleanablePoolImpl<>(pool, size, new HierarchicalBitmap(pool.length), concurrency);
+            case SYNCHRONIZED -> new Synchronized<>(pool, size);
+            case LOCK_FREE ->
+                    new ElasticCleanablePoolImpl<>(pool, size, new AtomicHierarchicalBitmap(pool.length, padded), concurrency);
+            case STRIPED -> throw new IllegalArgumentException("Elastic pools do not support " + concurrency);
+        };
+    }
+
+    ElasticCleanablePoolImpl(final @NotNull T[] pool, final int size, final @NotNull SlotBitmap dirty,
+                             final @NotNull PoolConcurrency concurrency) {
+        super(pool, true);
+        this.dirty = dirty;
+        this.concurrency = concurrency;
+        this.reserved = new BitSet(pool.length);
+        this.size = size;
+        this.reserve(size, pool.length);
+    }
+
+    @Override
+    int acquireSlot() {
+        while (true) {
+            final int size = this.size;
+            final int slot = this.dirty.acquire();
+            if (slot < 0) {
+                if (this.grow(size)) {
+                    continue;
+                }
+                final AdaptiveSizer sizer = this.sizer;
+                if (sizer != null) {
+                    sizer.recordOverflow();
+                }
+                return -1;
+            }
+            if (slot < this.size || !this.reserveReleased(slot)) {
+                final AdaptiveSizer sizer = this.sizer;
+                if (sizer != null) {
+                    sizer.recordAcquire();
+                }
+                return slot;
+            }
+        }
+    }
+
+    @Override
+    void releaseSlot(final int slot) {
+        if (slot >= this.size) {
+            this.pool[slot] = null;
+        }
+        this.dirty.release(slot);
+        final AdaptiveSizer sizer = this.sizer;
+        if (sizer != null) {
+            sizer.recordRelease();
+        }
+    }
+
+    @Override
+    boolean trySetSlot(final int slot) {
+        if (!this.dirty.trySet(slot)) {
+            return false;
+        }
+        final AdaptiveSizer sizer = this.sizer;
+        if (sizer != null) {
+            sizer.recordMark();
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void cleanAll() {
+        this.beforeCleanAll();
+        this.dirty.clear();
+        this.reserved.clear();
+        this.reserve(this.size, this.pool.length);
+        final AdaptiveSizer sizer = this.sizer;
+        if (sizer != null) {
+            sizer.recordCleanAll();
+        }
+        this.afterCleanAll();
+    }
+
+    @Override
+    public synchronized void resize(final @Range(from = 0L, to = Integer.MAX_VALUE) int size) {
+        if (size < 0 || size > this.pool.length) {
+            throw new IllegalArgumentException("size must be between 0 and " + this.pool.length);
+        }
+        final int current = this.size;
+        if (size > current) {
+            this.unreserve(current, size);
+            this.size = size;
+        } else if (size < current) {
+            this.size = size;
+            this.reserve(size, current);
+        }
+    }
+
+    @Override
+    public synchronized int adapt() {
+        final AdaptiveSizer sizer = this.sizer;
+        final int size = this.size;
+        if (sizer == null) {
+            return size;
+        }
+        sizer.closeWindow(this.inUse());
+        final int recommended = Math.min(this.pool.length, sizer.recommendedSize());
+        // Grow at once, but only shrink halfway so a single quiet window does not drop the objects of a busy pool
+        final int target = recommended >= size ? recommended : size - ((size - recommended + 1) >>> 1);
+        this.resize(target);
+        return target;
+    }
+
+    @Override
+    public synchronized int recommendedSize() {
+        final AdaptiveSizer sizer = this.sizer;
+        final int recommended = sizer != null ? sizer.recommendedSize() : -1;
+        return recommended >= 0 ? Math.min(this.pool.length, recommended) : this.size;
+    }
+
+    @Override
+    public @Range(from = 0L, to = Integer.MAX_VALUE) int size() {
+        return this.size;
+    }
+
+    @Override
+    public @Range(from = 0L, to = Integer.MAX_VALUE) int maxSize() {
+        return this.pool.length;
+    }
+
+    @Override
+    synchronized int inUse() {
+        return this.dirty.cardinality() - this.reserved.cardinality();
+    }
+
+    @Override
+    void setStats(final PoolStatsRecorder stats) {
+        super.setStats(stats);
+        if (this.dirty instanceof AtomicHierarchicalBitmap atomic) {
+            atomic.setStats(stats);
+        }
+    }
+
+    void setSizer(final AdaptiveSizer sizer) {
+        this.sizer = sizer;
+    }
+
+    @Override
+    public @NotNull PoolConcurrency poolConcurrency() {
+        return this.concurrency;
+    }
+
+    /**
+     * Absorb an overflow by adding slots.
+     *
+     * @param observedSize the size when the acquisition failed
+     * @return whether the acquisition should be retried
+     */
+    private synchronized boolean grow(final int observedSize) {
+        final int current = this.size;
+        if (current != observedSize) {
+            return true;
+        }
+        if (current >= this.pool.length) {
+            return false;
+        }
+        final int size = (int) Math.min(this.pool.length, (long) current + Math.max(MIN_GROWTH, current >>> 1));
+        this.unreserve(current, size);
+        this.size = size;
+        return true;
+    }
+
+    /**
+     * Reserve a slot beyond the size that was still in use during a shrink and got released since.
+     *
+     * @return {@code false} if the pool grew in the meantime and the slot can be used
+     */
+    private synchronized boolean reserveReleased(final int slot) {
+        if (slot < this.size) {
+            return false;
+        }
+        this.reserved.set(slot);
+        this.pool[slot] = null;
+        return true;
+    }
+
+    private void reserve(final int from, final int to) {
+        for (int slot = from; slot < to; slot++) {
+            if (this.dirty.trySet(slot)) {
+                this.reserved.set(slot);
+                this.pool[slot] = null;
+            }
+        }
+    }
+
+    private void unreserve(final int from, final int to) {
+        for (int slot = this.reserved.nextSetBit(from); slot >= 0 && slot < to; slot = this.reserved.nextSetBit(slot + 1)) {
+            this.reserved.clear(slot);
+            this.dirty.release(slot);
+        }
+    }
+
+    static final class Synchronized<T> extends ElasticCleanablePoolImpl<T> {
+
+        Synchronized(final @NotNull T[] pool, final int size) {
+            super(pool, size, new HierarchicalBitmap(pool.length), PoolConcurrency.SYNCHRONIZED);
+        }
+
+        @Override
+        synchronized int acquireSlot() {
+            return super.acquireSlot();
+        }
+
+        @Override
+        synchronized void releaseSlot(final int slot) {
+            super.releaseSlot(slot);
+        }
+
+        @Override
+        synchronized boolean trySetSlot(final int slot) {
+            return super.trySetSlot(slot);
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Range;
+
+/**
+ * {@link SweepCleanablePool} split into rotating regions, one per epoch. Objects are handed out from the region of the
+ * current epoch, {@link #advanceEpoch()} moves to the next region, and a region is only reused once its epoch has been
+ * given to {@link #retire(long)}. This lets the objects of older epochs stay valid while the next ones are built.
+ * <p>
+ * The get path never locks. A {@link #get()} racing with {@link #advanceEpoch()} may still be served from the previous
+ * epoch.
+ */
+public interface EpochSweepCleanablePool<T> extends SweepCleanablePool<T> {
+
+    /**
+     * @return the number of regions, which is also the number of epochs that can be alive at the same time
+     */
+    @Contract(pure = true)
+    @Range(from = 2L, to = Integer.MAX_VALUE)
+    int epochs();
+
+    @Contract(pure = true)
+    long currentEpoch();
+
+    /**
+     * Start handing out objects from the region of the next epoch.
+     *
+     * @return the new current epoch
+     * @throws IllegalStateException if the epoch previously using that region was not retired
+     */
+    long advanceEpoch();
+
+    /**
+     * Make the region of a past epoch reusable. Retiring an epoch twice, or an epoch whose region was already reused, has
+     * no effect.
+     *
+     * @throws IllegalArgumentException if {@code epoch} is not older than {@link #currentEpoch()}
+     */
+    void retire(final long epoch);
+
+    /**
+     * Retire every past epoch and restart the current one from the beginning of its region.
+     */
+    @Override
+    void cleanAll();
+
+}
@@ -0,0 +1,288 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Regions are consecutive parts of the pool array. Epoch {@code e} uses region {@code e % epochs}, and the bookkeeping
+ * of the epochs is only touched by {@link #advanceEpoch()}, {@link #retire(long)} and {@link #cleanAll()}, which are
+ * synchronized. Subclasses only decide how the cursor of a region is moved by the get path.
+ */
+abstract sealed class EpochSweepCleanablePoolImpl<T> extends AbstractPool<T> implements EpochSweepCleanablePool<T> permits EpochSweepCleanablePoolImpl.NotConcurrent, EpochSweepCleanablePoolImpl.LockFree {
+
+    private static final long FREE = -1L;
+
+    static <T> EpochSweepCleanablePoolImpl<T> build(final @NotNull T[] pool, final int epochs,
+                                                    final @NotNull PoolConcurrency concurrency) {
+        return switch (concurrency) {
+            case NOT_CONCURRENT -> new NotConcurrent<>(pool, epochs);
+            case SYNCHRONIZED -> new Synchronized<>(pool, epochs);
+            case LOCK_FREE -> new LockFree<>(pool, epochs);
+            case STRIPED -> throw new IllegalArgumentException("Epoch sweep pools do not support " + concurrency);
+        };
+    }
+
+    protected final int regionSize;
+    private final long[] regionEpochs;
+    private volatile long epoch;
+    private volatile int region;
+
+    EpochSweepCleanablePoolImpl(final @NotNull T[] pool, final int epochs) {
+        super(pool);
+        this.regionSize = pool.length / epochs;
+        this.regionEpochs = new long[epochs];
+        for (int i = 1; i < epochs; i++) {
+            this.regionEpochs[i] = FREE;
+        }
+    }
+
+    @Override
+    public @NotNull T get() {
+        final int index = this.claim(this.region);
+        if (index < 0) {
+            return this.getFromSupplier();
+        }
+        return this.getAt(index);
+    }
+
+    @Override
+    public @NotNull List<T> getRange(final int count) {
+        SweepCleanablePoolImpl.checkCount(count);
+        final int region = this.region;
+        final int start = this.claimRange(region, count);
+        final int end = (region + 1) * this.regionSize;
+        return SweepCleanablePoolImpl.range(this, start, Math.max(0, Math.min(count, end - start)), count);
+    }
+
+    @Override
+    public int epochs() {
+        return this.regionEpochs.length;
+    }
+
+    @Override
+    public long currentEpoch() {
+        return this.epoch;
+    }
+
+    @Override
+    public synchronized long advanceEpoch() {
+        final long next = this.epoch + 1;
+        final int region = (int) (next % this.regionEpochs.length);
+        if (this.regionEpochs[region] != FREE) {
+            throw new IllegalStateException("Epoch " + this.regionEpochs[region] + " must be retired before advancing");
+        }
+        this.regionEpochs[region] = next;
+        this.epoch = next;
+        this.region = region;
+        return next;
+    }
+
+    @Override
+    public synchronized void retire(final long epoch) {
+        if (epoch < 0L || epoch >= this.epoch) {
+            throw new IllegalArgumentException("Only past epochs can be retired");
+        }
+        final int region = (int) (epoch % this.regionEpochs.length);
+        if (this.regionEpochs[region] == epoch) {
+            this.recycle(region);
+            this.regionEpochs[region] = FREE;
+        }
+    }
+
+    @Override
+    public synchronized void cleanAll() {
+        for (int region = 0; region < this.regionEpochs.length; region++) {
+            if (this.regionEpochs[region] != FREE) {
+                this.recycle(region);
+                this.regionEpochs[region] = FREE;
+            }
+        }
+        this.regionEpochs[this.region] = this.epoch;
+    }
+
+    @Override
+    int inUse() {
+        int inUse = 0;
+        for (int region = 0; region < this.regionEpochs.length; region++) {
+            inUse += this.used(region);
+        }
+        return inUse;
+    }
+
+    private void recycle(final int region) {
+        final int start = region * this.regionSize;
+        SweepCleanablePoolImpl.cleanUsed(this, start, start + this.used(region));
+        this.reset(region);
+    }
+
+    /**
+     * @return the index of the claimed object, or {@code -1} if the region is exhausted
+     */
+    abstract int claim(final int region);
+
+    /**
+     * Claim {@code count} objects at once.
+     *
+     * @return the index of the first claimed object, which may be past the end of the region
+     */
+    abstract int claimRange(final int region, final int count);
+
+    /**
+     * @return the number of objects handed out by a region
+     */
+    abstract int used(final int region);
+
+    abstract void reset(final int region);
+
+    static sealed class NotConcurrent<T> extends EpochSweepCleanablePoolImpl<T> permits Synchronized {
+
+        private final int[] cursors;
+
+        NotConcurrent(final @NotNull T[] pool, final int epochs) {
+            super(pool, epochs);
+            this.cursors = new int[epochs];
+            for (int region = 0; region < epochs; region++) {
+                this.cursors[region] = region * this.regionSize;
+            }
+        }
+
+        @Override
+        int claim(final int region) {
+            final int cursor = this.cursors[region];
+            if (cursor >= (region + 1) * this.regionSize) {
+                return -1;
+            }
+            this.cursors[region] = cursor + 1;
+            return cursor;
+        }
+
+        @Override
+        int claimRange(final int region, final int count) {
+            final int cursor = this.cursors[region];
+            this.cursors[region] = Math.min((region + 1) * this.regionSize, cursor + count);
+            return cursor;
+        }
+
+        @Override
+        int used(final int region) {
+            return this.cursors[region] - region * this.regionSize;
+        }
+
+        @Override
+        void reset(final int region) {
+            this.cursors[region] = region * this.regionSize;
+        }
+
+        @Override
+        public @NotNull PoolConcurrency poolConcurrency() {
+            return PoolConcurrency.NOT_CONCURRENT;
+        }
+
+    }
+
+    static final class Synchronized<T> extends NotConcurrent<T> {
+
+        Synchronized(final @NotNull T[] pool, final int epochs) {
+            super(pool, epochs);
+        }
+
+        @Override
+        public synchronized @NotNull T get() {
+            return super.get();
+        }
+
+        @Override
+        public synchronized @NotNull List<T> getRange(final int count) {
+            return super.getRange(count);
+        }
+
+        @Override
+        synchronized int inUse() {
+            return super.inUse();
+        }
+
+        @Override
+        public @NotNull PoolConcurrency poolConcurrency() {
+            return PoolConcurrency.SYNCHRONIZED;
+        }
+
+    }
+
+    static final class LockFree<T> extends EpochSweepCleanablePoolImpl<T> {
+
+        private final AtomicInteger[] cursors;
+
+        LockFree(final @NotNull T[] pool, final int epochs) {
+            super(pool, epochs);
+            this.cursors = new AtomicInteger[epochs];
+            for (int region = 0; region < epochs; region++) {
+                this.cursors[region] = new AtomicInteger(region * this.regionSize);
+            }
+        }
+
+        @Override
+        int claim(final int region) {
+            final AtomicInteger cursor = this.cursors[region];
+            final int end = (region + 1) * this.regionSize;
+            int index = cursor.get();
+            if (index >= end || (index = cursor.getAndIncrement()) >= end) {
+                return -1;
+            }
+            return index;
+        }
+
+        @Override
+        int claimRange(final int region, final int count) {
+            final AtomicInteger cursor = this.cursors[region];
+            final int index = cursor.get();
+            if (index >= (region + 1) * this.regionSize || count == 0) {
+                return index;
+            }
+            return cursor.getAndAdd(count);
+        }
+
+        @Override
+        int used(final int region) {
+            final int start = region * this.regionSize;
+            return Math.min(this.cursors[region].get(), start + this.regionSize) - start;
+        }
+
+        @Override
+        void reset(final int region) {
+            this.cursors[region].set(region * this.regionSize);
+        }
+
+        @Override
+        public @NotNull PoolConcurrency poolConcurrency() {
+            return PoolConcurrency.LOCK_FREE;
+        }
+
+    }
+
+}
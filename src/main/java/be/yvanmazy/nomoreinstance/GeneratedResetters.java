@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.nomoreinstance.annotation.Poolable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Resetters generated for {@link Poolable} classes. They are loaded once per class, pools then call them directly.
+ */
+final class GeneratedResetters {
+
+    private static final ClassValue<UnaryOperator<?>> RESETTERS = new ClassValue<>() {
+        @Override
+        protected UnaryOperator<?> computeValue(final @NotNull Class<?> type) {
+            return type.isAnnotationPresent(Poolable.class) ? load(type) : null;
+        }
+    };
+
+    private GeneratedResetters() throws IllegalAccessException {
+        throw new IllegalAccessException("You cannot instantiate this class");
+    }
+
+    /**
+     * @return the resetter generated for {@code type}, or {@code null} if it is not {@link Poolable}
+     */
+    @SuppressWarnings("unchecked")
+    static <T> @Nullable UnaryOperator<T> find(final @NotNull Class<?> type) {
+        return (UnaryOperator<T>) RESETTERS.get(type);
+    }
+
+    static @NotNull String resetterName(final @NotNull Class<?> type) {
+        return type.getName().replace('$', '_') + "Resetter";
+    }
+
+    private static UnaryOperator<?> load(final Class<?> type) {
+        final String name = resetterName(type);
+        try {
+            return (UnaryOperator<?>) Class.forName(name, true, type.getClassLoader()).getConstructor().newInstance();
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    name + " was not generated, add the NoMoreInstance processor to the annotation processor path", e);
+        } catch (final ReflectiveOperationException | ClassCastException e) {
+            final Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            throw new IllegalStateException("Cannot create " + name, cause);
+        }
+    }
+
+}
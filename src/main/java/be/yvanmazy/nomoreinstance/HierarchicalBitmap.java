@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Range;
+
+import java.util.Arrays;
+
+/**
+ * Two-level (or more) bitmap used to find a free slot one 64-bit word at a time.
+ * <p>
+ * Level {@code 0} holds one bit per slot (set when the slot is in use). Every upper level holds one bit per word of the
+ * level below, set when that word is full. Bits beyond the end of a level are kept set, so a search never has to check
+ * bounds and always descends to the lowest free slot.
+ */
+final class HierarchicalBitmap implements SlotBitmap {
+
+    private final int size;
+    private final long[][] levels;
+
+    HierarchicalBitmap(final @Range(from = 0L, to = Integer.MAX_VALUE) int size) {
+        this.size = size;
+        final int[] words = layout(size);
+        this.levels = new long[words.length][];
+        for (int level = 0; level < words.length; level++) {
+            this.levels[level] = new long[words[level]];
+        }
+        this.clear();
+    }
+
+    @Override
+    public int acquire() {
+        final long[][] levels = this.levels;
+        int index = 0;
+        for (int level = levels.length - 1; level >= 0; level--) {
+            final long word = levels[level][index];
+            if (word == -1L) {
+                return -1;
+            }
+            index = (index << 6) | Long.numberOfTrailingZeros(~word);
+        }
+        this.set(index);
+        return index;
+    }
+
+    @Override
+    public int acquire(final int[] slots, final int from, final int to, final int base) {
+        final long[][] levels = this.levels;
+        final long[] leaves = levels[0];
+        int position = from;
+        while (position < to) {
+            int index = 0;
+            for (int level = levels.length - 1; level > 0; level--) {
+                final long word = levels[level][index];
+                if (word == -1L) {
+                    return position;
+                }
+                index = (index << 6) | Long.numberOfTrailingZeros(~word);
+            }
+            final long word = leaves[index];
+            if (word == -1L) {
+                return position;
+            }
+            final long claimed = lowestBits(~word, to - position);
+            position = store(slots, position, index, claimed, base);
+            leaves[index] = word | claimed;
+            if ((word | claimed) == -1L) {
+                this.markFull(index);
+            }
+        }
+        return position;
+    }
+
+    @Override
+    public boolean trySet(final int slot) {
+        if (this.isSet(slot)) {
+            return false;
+        }
+        this.set(slot);
+        return true;
+    }
+
+    @Override
+    public void release(final int slot) {
+        final long[][] levels = this.levels;
+        int index = slot;
+        for (final long[] words : levels) {
+            final int wordIndex = index >>> 6;
+            final long previous = words[wordIndex];
+            words[wordIndex] = previous & ~(1L << index);
+            if (previous != -1L) {
+                return;
+            }
+            index = wordIndex;
+        }
+    }
+
+    @Override
+    public void release(final int[] slots, final int from, final int to, final int base) {
+        final long[] leaves = this.levels[0];
+        int position = from;
+        while (position < to) {
+            final int wordIndex = (slots[position] - base) >>> 6;
+            long mask = 0L;
+            int slot;
+            while (position < to && ((slot = slots[position] - base) >>> 6) == wordIndex) {
+                mask |= 1L << slot;
+                position++;
+            }
+            final long previous = leaves[wordIndex];
+            leaves[wordIndex] = previous & ~mask;
+            if (previous == -1L && mask != 0L) {
+                this.clearFull(wordIndex);
+            }
+        }
+    }
+
+    @Override
+    public boolean isSet(final int slot) {
+        return (this.levels[0][slot >>> 6] & (1L << slot)) != 0L;
+    }
+
+    @Override
+    public int cardinality() {
+        int count = 0;
+        for (final long word : this.levels[0]) {
+            count += Long.bitCount(word);
+        }
+        return count - Long.bitCount(tailMask(this.size));
+    }
+
+    @Override
+    public void clear() {
+        int bits = this.size;
+        for (final long[] words : this.levels) {
+            Arrays.fill(words, 0L);
+            words[words.length - 1] = tailMask(bits);
+            bits = words.length;
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    private void set(final int slot) {
+        int index = slot;
+        for (final long[] words : this.levels) {
+            final int wordIndex = index >>> 6;
+            final long next = words[wordIndex] | (1L << index);
+            words[wordIndex] = next;
+            if (next != -1L) {
+                return;
+            }
+            index = wordIndex;
+        }
+    }
+
+    private void markFull(final int wordIndex) {
+        int index = wordIndex;
+        for (int level = 1; level < this.levels.length; level++) {
+            final long[] words = this.levels[level];
+            final int parent = index >>> 6;
+            final long next = words[parent] | (1L << index);
+            words[parent] = next;
+            if (next != -1L) {
+                return;
+            }
+            index = parent;
+        }
+    }
+
+    private void clearFull(final int wordIndex) {
+        int index = wordIndex;
+        for (int level = 1; level < this.levels.length; level++) {
+            final long[] words = this.levels[level];
+            final int parent = index >>> 6;
+            final long previous = words[parent];
+            words[parent] = previous & ~(1L << index);
+            if (previous != -1L) {
+                return;
+            }
+            index = parent;
+        }
+    }
+
+    /**
+     * Keep the {@code count} lowest set bits of {@code bits}.
+     */
+    static long lowestBits(final long bits, final int count) {
+        if (count >= Long.bitCount(bits)) {
+            return bits;
+        }
+        long remaining = bits;
+        long result = 0L;
+        for (int i = 0; i < count; i++) {
+            final long bit = Long.lowestOneBit(remaining);
+            result |= bit;
+            remaining ^= bit;
+        }
+        return result;
+    }
+
+    /**
+     * Store the slots of the set bits of {@code mask}, a word of the slots level, in ascending order.
+     *
+     * @return the position after the last stored slot
+     */
+    static int store(final int[] slots, final int from, final int wordIndex, final long mask, final int base) {
+        int position = from;
+        long bits = mask;
+        while (bits != 0L) {
+            slots[position++] = ((wordIndex << 6) | Long.numberOfTrailingZeros(bits)) + base;
+            bits &= bits - 1L;
+        }
+        return position;
+    }
+
+    /**
+     * Compute the number of words of each level, from the slots level to the single top word.
+     */
+    static int[] layout(final int size) {
+        int levels = 1;
+        int words = wordCount(size);
+        while (words > 1) {
+            words = wordCount(words);
+            levels++;
+        }
+        final int[] layout = new int[levels];
+        words = wordCount(size);
+        for (int level = 0; level < levels; level++) {
+            layout[level] = words;
+            words = wordCount(words);
+        }
+        return layout;
+    }
+
+    /**
+     * Value of the last word of a level holding {@code bits} bits: every bit past the end is marked as used.
+     */
+    static long tailMask(final int bits) {
+        final int remainder = bits & 63;
+        if (remainder == 0) {
+            return bits == 0 ? -1L : 0L;
+        }
+        return -1L << remainder;
+    }
+
+    private static int wordCount(final int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+
+}
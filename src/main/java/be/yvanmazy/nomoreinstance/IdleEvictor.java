@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * Drop the objects of the slots left unused for a while, so the supplier recreates them on their next use.
+ * <p>
+ * Idleness is tracked per word of 64 slots: releasing a slot stamps its word with {@link System#nanoTime()}. A sweep
+ * evicts the free slots of every word whose stamp is older than the idle time, so an object is never dropped before
+ * being idle that long, but it stays until the next sweep after that, and as long as another slot of its word is used.
+ */
+final class IdleEvictor<T> {
+
+    private final long idleNanos;
+    private final Consumer<? super T> disposer;
+    private final long[] stamps;
+
+    IdleEvictor(final int size, final long idleNanos, final @Nullable Consumer<? super T> disposer) {
+        this.idleNanos = idleNanos;
+        this.disposer = disposer;
+        this.stamps = new long[(size + 63) >>> 6];
+        this.touchAll();
+    }
+
+    void touch(final int slot) {
+        this.touch(slot, System.nanoTime());
+    }
+
+    /**
+     * Same as {@link #touch(int)}, with the time read once for several slots.
+     */
+    void touch(final int slot, final long now) {
+        this.stamps[slot >>> 6] = now;
+    }
+
+    void touchAll() {
+        final long now = System.nanoTime();
+        for (int i = 0; i < this.stamps.length; i++) {
+            this.stamps[i] = now;
+        }
+    }
+
+    int evict(final @NotNull CleanablePoolImpl<T> pool) {
+        final long now = System.nanoTime();
+        final T[] objects = pool.pool;
+        int evicted = 0;
+        for (int word = 0; word < this.stamps.length; word++) {
+            if (now - this.stamps[word] < this.idleNanos) {
+                continue;
+            }
+            final int end = Math.min(objects.length, (word + 1) << 6);
+            for (int slot = word << 6; slot < end; slot++) {
+                if (objects[slot] != null && pool.trySetSlot(slot)) {
+                    final T object = objects[slot];
+                    objects[slot] = null;
+                    try {
+                        if (object != null) {
+                            evicted++;
+                            this.dispose(object);
+                        }
+                    } finally {
+                        pool.releaseShared(slot);
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    private void dispose(final @NotNull T object) {
+        final Consumer<? super T> disposer = this.disposer;
+        if (disposer != null) {
+            disposer.accept(object);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+/**
+ * {@link KeyedPool} of small int keys, from {@code 0} to {@link #keyCount()} excluded. The sub-pools are stored in an
+ * array indexed by key, so the int methods neither hash nor box the key.
+ */
+public interface IntKeyedPool<T> extends KeyedPool<Integer, T> {
+
+    @NotNull CleanablePool<T> pool(final @Range(from = 0L, to = Integer.MAX_VALUE) int key);
+
+    default @NotNull Cleanable<T> get(final @Range(from = 0L, to = Integer.MAX_VALUE) int key) {
+        return this.pool(key).get();
+    }
+
+    @Override
+    default @NotNull CleanablePool<T> pool(final @NotNull Integer key) {
+        return this.pool(key.intValue());
+    }
+
+    /**
+     * @return the number of valid keys
+     */
+    int keyCount();
+
+}
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+/**
+ * Set of {@link CleanablePool}s, one per key, created on the first use of their key. Every sub-pool gets
+ * {@link #perKeySize()} slots while the total stays under {@link #maxSize()}: once it is reached, the sub-pools of new
+ * keys have no slot and always fall back to their factory.
+ */
+public interface KeyedPool<K, T> {
+
+    /**
+     * @return the sub-pool of {@code key}, created if needed
+     */
+    @NotNull CleanablePool<T> pool(final @NotNull K key);
+
+    default @NotNull Cleanable<T> get(final @NotNull K key) {
+        return this.pool(key).get();
+    }
+
+    @Contract(pure = true)
+    @Range(from = 0L, to = Integer.MAX_VALUE)
+    int perKeySize();
+
+    @Contract(pure = true)
+    @Range(from = 0L, to = Integer.MAX_VALUE)
+    int maxSize();
+
+    /**
+     * @return the number of slots given to the sub-pools created so far
+     */
+    @Contract(pure = true)
+    @Range(from = 0L, to = Integer.MAX_VALUE)
+    int size();
+
+    /**
+     * @return the number of sub-pools created so far
+     */
+    @Contract(pure = true)
+    @Range(from = 0L, to = Integer.MAX_VALUE)
+    int keys();
+
+    @Contract(pure = true)
+    @NotNull PoolConcurrency poolConcurrency();
+
+}
@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Sub-pools are created at most once per key, reserving their slots from the global budget when they are created.
+ * Lookups of existing sub-pools take no lock: {@link Hashed} is a {@link ConcurrentHashMap} read, {@link ClassKeyed} a
+ * {@link ClassValue} read and {@link Dense} an array read.
+ */
+abstract sealed class KeyedPoolImpl<K, T> implements KeyedPool<K, T>
+        permits KeyedPoolImpl.Hashed, KeyedPoolImpl.ClassKeyed, KeyedPoolImpl.Dense {
+
+    private final SubPoolFactory<T> factory;
+    private final int perKeySize;
+    private final int maxSize;
+    private final PoolConcurrency concurrency;
+    private final AtomicInteger remaining;
+
+    KeyedPoolImpl(final @NotNull SubPoolFactory<T> factory, final int perKeySize, final int maxSize,
+                  final @NotNull PoolConcurrency concurrency) {
+        this.factory = factory;
+        this.perKeySize = perKeySize;
+        this.maxSize = maxSize;
+        this.concurrency = concurrency;
+        this.remaining = new AtomicInteger(maxSize);
+    }
+
+    @NotNull CleanablePool<T> create(final @NotNull Supplier<T> supplier) {
+        int remaining;
+        int size;
+        do {
+            remaining = this.remaining.get();
+            size = Math.min(this.perKeySize, remaining);
+        } while (size > 0 && !this.remaining.compareAndSet(remaining, remaining - size));
+        return this.factory.create(supplier, size);
+    }
+
+    @Override
+    public int perKeySize() {
+        return this.perKeySize;
+    }
+
+    @Override
+    public int maxSize() {
+        return this.maxSize;
+    }
+
+    @Override
+    public int size() {
+        return this.maxSize - this.remaining.get();
+    }
+
+    @Override
+    public @NotNull PoolConcurrency poolConcurrency() {
+        return this.concurrency;
+    }
+
+    @FunctionalInterface
+    interface SubPoolFactory<T> {
+
+        @NotNull CleanablePool<T> create(final @NotNull Supplier<T> supplier, final int size);
+
+    }
+
+    static final class Hashed<K, T> extends KeyedPoolImpl<K, T> {
+
+        private final Function<? super K, ? extends T> objectFactory;
+        private final Map<K, CleanablePool<T>> pools = new ConcurrentHashMap<>();
+
+        Hashed(final @NotNull SubPoolFactory<T> factory, final @NotNull Function<? super K, ? extends T> objectFactory,
+               final int perKeySize, final int maxSize, final @NotNull PoolConcurrency concurrency) {
+            super(factory, perKeySize, maxSize, concurrency);
+            this.objectFactory = objectFactory;
+        }
+
+        @Override
+        public @NotNull CleanablePool<T> pool(final @NotNull K key) {
+            final CleanablePool<T> pool = this.pools.get(Objects.requireNonNull(key, "key must not be null"));
+            if (pool != null) {
+                return pool;
+            }
+            return this.pools.computeIfAbsent(key, k -> this.create(() -> this.objectFactory.apply(k)));
+        }
+
+        @Override
+        public int keys() {
+            return this.pools.size();
+        }
+
+    }
+
+    static final class ClassKeyed<T> extends KeyedPoolImpl<Class<?>, T> {
+
+        private final Function<? super Class<?>, ? extends T> objectFactory;
+        // ClassValue may compute a value several times concurrently, the map makes sure a single sub-pool is created
+        private final Map<Class<?>, CleanablePool<T>> created = new ConcurrentHashMap<>();
+        private final ClassValue<CleanablePool<T>> pools = new ClassValue<>() {
+            @Override
+            protected CleanablePool<T> computeValue(final @NotNull Class<?> type) {
+                return ClassKeyed.this.created.computeIfAbsent(type,
+                        t -> ClassKeyed.this.create(() -> ClassKeyed.this.objectFactory.apply(t)));
+            }
+        };
+
+        ClassKeyed(final @NotNull SubPoolFactory<T> factory,
+                   final @NotNull Function<? super Class<?>, ? extends T> objectFactory, final int perKeySize,
+                   final int maxSize, final @NotNull PoolConcurrency concurrency) {
+            super(factory, perKeySize, maxSize, concurrency);
+            this.objectFactory = objectFactory;
+        }
+
+        @Override
+        public @NotNull CleanablePool<T> pool(final @NotNull Class<?> key) {
+            return this.pools.get(key);
+        }
+
+        @Override
+        public int keys() {
+            return this.created.size();
+        }
+
+    }
+
+    static final class Dense<T> extends KeyedPoolImpl<Integer, T> implements IntKeyedPool<T> {
+
+        private final IntFunction<? extends T> objectFactory;
+        private final AtomicReferenceArray<CleanablePool<T>> pools;
+        private int keys; // Guarded by this
+
+        Dense(final @NotNull SubPoolFactory<T> factory, final @NotNull IntFunction<? extends T> objectFactory,
+              final int keyCount, final int perKeySize, final int maxSize, final @NotNull PoolConcurrency concurrency) {
+            super(factory, perKeySize, maxSize, concurrency);
+            this.objectFactory = objectFactory;
+            this.pools = new AtomicReferenceArray<>(keyCount);
+        }
+
+        @Override
+        public @NotNull CleanablePool<T> pool(final int key) {
+            if (key < 0 || key >= this.pools.length()) {
+                throw new IllegalArgumentException("key must be between 0 and " + (this.pools.length() - 1));
+            }
+            final CleanablePool<T> pool = this.pools.get(key);
+            return pool != null ? pool : this.createPool(key);
+        }
+
+        private synchronized @NotNull CleanablePool<T> createPool(final int key) {
+            CleanablePool<T> pool = this.pools.get(key);
+            if (pool == null) {
+                pool = this.create(() -> this.objectFactory.apply(key));
+                this.pools.set(key, pool);
+                this.keys++;
+            }
+            return pool;
+        }
+
+        @Override
+        public synchronized int keys() {
+            return this.keys;
+        }
+
+        @Override
+        public int keyCount() {
+            return this.pools.length();
+        }
+
+    }
+
+}
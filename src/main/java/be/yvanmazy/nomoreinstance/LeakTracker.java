@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.Cleaner;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Track a sample of the {@link Cleanable}s handed out by a pool. When a tracked {@link Cleanable} becomes unreachable
+ * without being closed, its acquisition stack trace is logged and its slot is queued. Queued slots are released by the
+ * next thread that finds the pool exhausted, so pools that are not thread-safe are only updated by their own thread.
+ */
+final class LeakTracker {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final System.Logger LOGGER = System.getLogger(LeakTracker.class.getName());
+
+    private final int sampleRate;
+    private final Queue<Lease> leaks = new ConcurrentLinkedQueue<>();
+    private volatile int generation;
+
+    LeakTracker(final int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    boolean sample() {
+        return this.sampleRate == 1 || ThreadLocalRandom.current().nextInt(this.sampleRate) == 0;
+    }
+
+    <T> @NotNull Cleanable<T> track(final @NotNull CleanablePool<T> pool, final int index, final @NotNull T value) {
+        final Lease lease = new Lease(this, index, this.generation, new Throwable("Acquisition site"));
+        final TrackedCleanable<T> cleanable = new TrackedCleanable<>(pool, lease, value);
+        cleanable.registration = CLEANER.register(cleanable, lease);
+        return cleanable;
+    }
+
+    /**
+     * Release the slots of the leaks found since the last call.
+     *
+     * @return {@code true} if at least one slot was released
+     */
+    boolean releaseLeaks(final @NotNull CleanablePoolImpl<?> pool) {
+        boolean released = false;
+        Lease lease;
+        while ((lease = this.leaks.poll()) != null) {
+            // A slot leaked before a cleanAll may already be used again
+            if (lease.generation == this.generation) {
+                pool.cleanReleased(lease.index - 1);
+                pool.recordRelease(1);
+                pool.releaseShared(lease.index - 1);
+                released = true;
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Forget the leaks found so far, their slots were released by {@link CleanablePool#cleanAll()}.
+     */
+    void newGeneration() {
+        this.generation++;
+        this.leaks.clear();
+    }
+
+    private void leaked(final @NotNull Lease lease) {
+        LOGGER.log(System.Logger.Level.WARNING, "A pooled object was never released, its slot will be reclaimed",
+                lease.site);
+        this.leaks.add(lease);
+    }
+
+    /**
+     * Cleaning action, it must not reference the {@link TrackedCleanable}.
+     */
+    private static final class Lease implements Runnable {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final LeakTracker tracker;
+        private final int index;
+        private final int generation;
+        private final Throwable site;
+
+        private Lease(final @NotNull LeakTracker tracker, final int index, final int generation,
+                      final @NotNull Throwable site) {
+            this.tracker = tracker;
+            this.index = index;
+            this.generation = generation;
+            this.site = site;
+        }
+
+        /**
+         * @return {@code true} for the first caller only
+         */
+        private boolean close() {
+            return this.closed.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            if (this.close()) {
+                this.tracker.leaked(this);
+            }
+        }
+
+    }
+
+    private static final class TrackedCleanable<T> implements Cleanable<T> {
+
+        private final CleanablePool<T> pool;
+        private final Lease lease;
+        private final T value;
+        private Cleaner.Cleanable registration;
+
+        private TrackedCleanable(final @NotNull CleanablePool<T> pool, final @NotNull Lease lease,
+                                 final @NotNull T value) {
+            this.pool = pool;
+            this.lease = lease;
+            this.value = value;
+        }
+
+        @Override
+        public @NotNull T value() {
+            return this.value;
+        }
+
+        @Override
+        public void close() {
+            if (this.lease.close()) {
+                this.pool.clean(this.lease.index);
+                this.registration.clean();
+            }
+        }
+
+    }
+
+}
@@ -26,53 +26,50 @@ package be.yvanmazy.nomoreinstance;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicLongArray;
-
 sealed class LongArrayCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits LongArrayCleanablePoolImpl.Synchronized {
 
-    private final long[] dirty;
+    private final HierarchicalBitmap dirty;
 
     LongArrayCleanablePoolImpl(final @NotNull T[] pool) {
         super(pool);
-        this.dirty = new long[(pool.length + 63) / 64];
+        this.dirty = new HierarchicalBitmap(pool.length);
     }
 
     @Override
-    public @NotNull Cleanable<T> get() {
-        for (int i = 1; i <= this.pool.length; i++) {
-            if (!this.isDirty(i)) {
-                this.setDirty(i, true);
-                return this.wrap(i, this.getAt(i - 1));
-            }
-        }
-        return this.wrapIgnore(this.getFromSupplier());
+    int acquireSlot() {
+        return this.dirty.acquire();
     }
 
     @Override
-    public void clean(final int index) {
-        this.setDirty(index, false);
+    void releaseSlot(final int slot) {
+        this.dirty.release(slot);
     }
 
     @Override
-    public void cleanAll() {
-        Arrays.fill(this.dirty, 0L);
+    boolean trySetSlot(final int slot) {
+        return this.dirty.trySet(slot);
     }
 
-    private boolean isDirty(final int index) {
-        final int arrayIndex = (index - 1) / 64;
-        final int bitIndex = (index - 1) % 64;
-        return ((this.dirty[arrayIndex] >> bitIndex) & 1) == 1;
+    @Override
+    int acquireSlots(final int[] indices, final int from, final int to) {
+        return this.dirty.acquire(indices, from, to, 1);
     }
 
-    private void setDirty(final int index, final boolean state) {
-        final int arrayIndex = (index - 1) / 64;
-        final int bitIndex = (index - 1) % 64;
-        if (state) {
-            this.dirty[arrayIndex] |= (1L << bitIndex);
-        } else {
-            this.dirty[arrayIndex] &= ~(1L << bitIndex);
-        }
+    @Override
+    void releaseSlots(final int[] indices, final int from, final int to) {
+        this.dirty.release(indices, from, to, 1);
+    }
+
+    @Override
+    public void cleanAll() {
+        this.beforeCleanAll();
+        this.dirty.clear();
+        this.afterCleanAll();
+    }
+
+    @Override
+    int inUse() {
+        return this.dirty.cardinality();
     }
 
     @Override
@@ -87,13 +84,28 @@ sealed class LongArrayCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits
         }
 
         @Override
-        public synchronized @NotNull Cleanable<T> get() {
-            return super.get();
+        synchronized int acquireSlot() {
+            return super.acquireSlot();
+        }
+
+        @Override
+        synchronized void releaseSlot(final int slot) {
+            super.releaseSlot(slot);
         }
 
         @Override
-        public synchronized void clean(final int index) {
-            super.clean(index);
+        synchronized boolean trySetSlot(final int slot) {
+            return super.trySetSlot(slot);
+        }
+
+        @Override
+        synchronized int acquireSlots(final int[] indices, final int from, final int to) {
+            return super.acquireSlots(indices, from, to);
+        }
+
+        @Override
+        synchronized void releaseSlots(final int[] indices, final int from, final int to) {
+            super.releaseSlots(indices, from, to);
         }
 
         @Override
@@ -101,6 +113,11 @@ sealed class LongArrayCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits
             super.cleanAll();
         }
 
+        @Override
+        synchronized int inUse() {
+            return super.inUse();
+        }
+
         @Override
         public @NotNull PoolConcurrency poolConcurrency() {
             return PoolConcurrency.SYNCHRONIZED;
@@ -110,47 +127,54 @@ sealed class LongArrayCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits
 
     static final class LockFree<T> extends CleanablePoolImpl<T> {
 
-        private final AtomicLongArray dirty;
+        private final AtomicHierarchicalBitmap dirty;
 
-        LockFree(final @NotNull T[] pool) {
+        LockFree(final @NotNull T[] pool, final boolean padded) {
             super(pool);
-            this.dirty = new AtomicLongArray((pool.length + 63) / 64);
+            this.dirty = new AtomicHierarchicalBitmap(pool.length, padded);
+        }
+
+        @Override
+        int acquireSlot() {
+            return this.dirty.acquire();
+        }
+
+        @Override
+        void releaseSlot(final int slot) {
+            this.dirty.release(slot);
         }
 
         @Override
-        public @NotNull Cleanable<T> get() {
-            long prev, next;
-            for (int i = 1; i <= this.pool.length; i++) {
-                final int arrayIndex = (i - 1) / 64;
-                final int bitIndex = (i - 1) % 64;
-                prev = this.dirty.get(arrayIndex);
-                if (((prev >> bitIndex) & 1) == 0) {
-                    next = prev | (1L << bitIndex);
-                    if (this.dirty.compareAndSet(arrayIndex, prev, next)) {
-                        return this.wrap(i, this.getAt(i - 1));
-                    }
-                }
-            }
-            return this.wrapIgnore(this.getFromSupplier());
+        boolean trySetSlot(final int slot) {
+            return this.dirty.trySet(slot);
         }
 
         @Override
-        public void clean(final int index) {
-            final int arrayIndex = (index - 1) / 64;
-            final int bitIndex = (index - 1) % 64;
-            long current, next;
-            do {
-                current = this.dirty.get(arrayIndex);
-                next = current & ~(1L << bitIndex);
-            } while (!this.dirty.compareAndSet(arrayIndex, current, next));
+        int acquireSlots(final int[] indices, final int from, final int to) {
+            return this.dirty.acquire(indices, from, to, 1);
+        }
+
+        @Override
+        void releaseSlots(final int[] indices, final int from, final int to) {
+            this.dirty.release(indices, from, to, 1);
         }
 
         @Override
         public void cleanAll() {
-            final int length = this.dirty.length();
-            for (int i = 0; i < length; i++) {
-                this.dirty.set(i, 0L);
-            }
+            this.beforeCleanAll();
+            this.dirty.clear();
+            this.afterCleanAll();
+        }
+
+        @Override
+        int inUse() {
+            return this.dirty.cardinality();
+        }
+
+        @Override
+        void setStats(final PoolStatsRecorder stats) {
+            super.setStats(stats);
+            this.dirty.setStats(stats);
         }
 
         @Override
@@ -28,9 +28,6 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.atomic.AtomicLong;
 
-import static be.yvanmazy.nomoreinstance.util.BitUtil.getFlag;
-import static be.yvanmazy.nomoreinstance.util.BitUtil.setFlag;
-
 sealed class LongCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits LongCleanablePoolImpl.Synchronized {
 
     private long dirty;
@@ -43,32 +40,55 @@ sealed class LongCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits LongC
     }
 
     @Override
-    public @NotNull Cleanable<T> get() {
-        for (int i = 1; i <= this.pool.length; i++) {
-            if (!this.isDirty(i)) {
-                this.setDirty(i, true);
-                return this.wrap(i, this.getAt(i - 1));
-            }
+    int acquireSlot() {
+        final long dirty = this.dirty;
+        final int slot = Long.numberOfTrailingZeros(~dirty);
+        if (slot >= this.pool.length) {
+            return -1;
         }
-        return this.wrapIgnore(this.getFromSupplier());
+        this.dirty = dirty | (1L << slot);
+        return slot;
     }
 
     @Override
-    public void clean(final int index) {
-        this.setDirty(index, false);
+    void releaseSlot(final int slot) {
+        this.dirty &= ~(1L << slot);
     }
 
     @Override
-    public void cleanAll() {
-        this.dirty = 0L;
+    boolean trySetSlot(final int slot) {
+        final long bit = 1L << slot;
+        if ((this.dirty & bit) != 0L) {
+            return false;
+        }
+        this.dirty |= bit;
+        return true;
     }
 
-    private boolean isDirty(final int index) {
-        return getFlag(this.dirty, index);
+    @Override
+    int acquireSlots(final int[] indices, final int from, final int to) {
+        final long dirty = this.dirty;
+        final long free = ~(dirty | HierarchicalBitmap.tailMask(this.pool.length));
+        final long claimed = HierarchicalBitmap.lowestBits(free, to - from);
+        this.dirty = dirty | claimed;
+        return HierarchicalBitmap.store(indices, from, 0, claimed, 1);
     }
 
-    private void setDirty(final int index, final boolean state) {
-        this.dirty = setFlag(this.dirty, index, state);
+    @Override
+    void releaseSlots(final int[] indices, final int from, final int to) {
+        this.dirty &= ~mask(indices, from, to);
+    }
+
+    @Override
+    public void cleanAll() {
+        this.beforeCleanAll();
+        this.dirty = 0L;
+        this.afterCleanAll();
+    }
+
+    @Override
+    int inUse() {
+        return Long.bitCount(this.dirty);
     }
 
     @Override
@@ -83,13 +103,28 @@ sealed class LongCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits LongC
         }
 
         @Override
-        public synchronized @NotNull Cleanable<T> get() {
-            return super.get();
+        synchronized int acquireSlot() {
+            return super.acquireSlot();
         }
 
         @Override
-        public synchronized void clean(final int index) {
-            super.clean(index);
+        synchronized void releaseSlot(final int slot) {
+            super.releaseSlot(slot);
+        }
+
+        @Override
+        synchronized boolean trySetSlot(final int slot) {
+            return super.trySetSlot(slot);
+        }
+
+        @Override
+        synchronized int acquireSlots(final int[] indices, final int from, final int to) {
+            return super.acquireSlots(indices, from, to);
+        }
+
+        @Override
+        synchronized void releaseSlots(final int[] indices, final int from, final int to) {
+            super.releaseSlots(indices, from, to);
         }
 
         @Override
@@ -97,6 +132,11 @@ sealed class LongCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits LongC
             super.cleanAll();
         }
 
+        @Override
+        synchronized int inUse() {
+            return super.inUse();
+        }
+
         @Override
         public @NotNull PoolConcurrency poolConcurrency() {
             return PoolConcurrency.SYNCHRONIZED;
@@ -116,31 +156,94 @@ sealed class LongCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits LongC
         }
 
         @Override
-        public @NotNull Cleanable<T> get() {
-            for (int i = 1; i <= this.pool.length; i++) {
+        int acquireSlot() {
+            final int length = this.pool.length;
+            while (true) {
                 final long current = this.dirty.get();
-                if (!getFlag(current, i) && this.dirty.compareAndSet(current, setFlag(current, i, true))) {
-                    return this.wrap(i, this.getAt(i - 1));
+                final int slot = Long.numberOfTrailingZeros(~current);
+                if (slot >= length) {
+                    return -1;
+                }
+                if (this.dirty.compareAndSet(current, current | (1L << slot))) {
+                    return slot;
+                }
+                this.recordCasRetry();
+            }
+        }
+
+        @Override
+        void releaseSlot(final int slot) {
+            final long bit = 1L << slot;
+            long current = this.dirty.get();
+            while ((current & bit) != 0L) {
+                if (this.dirty.compareAndSet(current, current & ~bit)) {
+                    return;
                 }
+                this.recordCasRetry();
+                current = this.dirty.get();
             }
-            return this.wrapIgnore(this.getFromSupplier());
         }
 
         @Override
-        public void clean(final int index) {
-            long current, next;
-            do {
+        boolean trySetSlot(final int slot) {
+            final long bit = 1L << slot;
+            long current = this.dirty.get();
+            while ((current & bit) == 0L) {
+                if (this.dirty.compareAndSet(current, current | bit)) {
+                    return true;
+                }
+                this.recordCasRetry();
                 current = this.dirty.get();
-                if (!getFlag(current, index)) {
+            }
+            return false;
+        }
+
+        @Override
+        int acquireSlots(final int[] indices, final int from, final int to) {
+            final long tail = HierarchicalBitmap.tailMask(this.pool.length);
+            while (true) {
+                final long current = this.dirty.get();
+                final long claimed = HierarchicalBitmap.lowestBits(~(current | tail), to - from);
+                if (claimed == 0L) {
+                    return from;
+                }
+                if (this.dirty.compareAndSet(current, current | claimed)) {
+                    return HierarchicalBitmap.store(indices, from, 0, claimed, 1);
+                }
+                this.recordCasRetry();
+            }
+        }
+
+        @Override
+        void releaseSlots(final int[] indices, final int from, final int to) {
+            final long mask = mask(indices, from, to);
+            long current = this.dirty.get();
+            while ((current & mask) != 0L) {
+                if (this.dirty.compareAndSet(current, current & ~mask)) {
                     return;
                 }
-                next = setFlag(current, index, false);
-            } while (!this.dirty.compareAndSet(current, next));
+                this.recordCasRetry();
+                current = this.dirty.get();
+            }
         }
 
         @Override
         public void cleanAll() {
+            this.beforeCleanAll();
             this.dirty.set(0L);
+            this.afterCleanAll();
+        }
+
+        @Override
+        int inUse() {
+            return Long.bitCount(this.dirty.get());
+        }
+
+        private void recordCasRetry() {
+            final PoolStatsRecorder stats = this.stats;
+            if (stats != null) {
+                stats.recordCasRetry();
+            }
         }
 
         @Override
@@ -150,4 +253,12 @@ sealed class LongCleanablePoolImpl<T> extends CleanablePoolImpl<T> permits LongC
 
     }
 
-}
\ No newline at end of file
+    private static long mask(final int[] indices, final int from, final int to) {
+        long mask = 0L;
+        for (int i = from; i < to; i++) {
+            mask |= 1L << (indices[i] - 1);
+        }
+        return mask;
+    }
+
+}
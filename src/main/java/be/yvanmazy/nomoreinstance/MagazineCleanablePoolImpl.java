@@ -0,0 +1,224 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps a small per-thread stack of free slots in front of a thread-safe pool.
+ * <p>
+ * Slots are moved between a thread's magazine and the shared pool by batches, so most acquire/release pairs made by
+ * the same thread never touch the shared bitmap. When the shared pool is empty, free slots parked in the magazines of
+ * other threads are given back to it before failing, and the magazines of threads that ended are emptied.
+ */
+final class MagazineCleanablePoolImpl<T> extends CleanablePoolImpl<T> {
+
+    private final CleanablePoolImpl<T> shared;
+    private final int capacity;
+    private final int batchSize;
+    private final ThreadLocal<Magazine> magazines;
+    private final Queue<Magazine> allMagazines = new ConcurrentLinkedQueue<>();
+    private volatile int generation;
+
+    MagazineCleanablePoolImpl(final @NotNull CleanablePoolImpl<T> shared, final int capacity, final int batchSize) {
+        super(shared.pool);
+        this.shared = shared;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.magazines = ThreadLocal.withInitial(this::newMagazine);
+    }
+
+    @Override
+    int acquireSlot() {
+        final Magazine magazine = this.magazines.get();
+        while (true) {
+            synchronized (magazine) {
+                this.checkGeneration(magazine);
+                if (magazine.count > 0 || this.refill(magazine)) {
+                    return magazine.slots[--magazine.count];
+                }
+            }
+            if (!this.reclaim(magazine, false)) {
+                return -1;
+            }
+        }
+    }
+
+    @Override
+    void releaseSlot(final int slot) {
+        final Magazine magazine = this.magazines.get();
+        synchronized (magazine) {
+            this.checkGeneration(magazine);
+            if (magazine.count == this.capacity) {
+                this.flush(magazine, this.batchSize);
+            }
+            magazine.slots[magazine.count++] = slot;
+        }
+    }
+
+    @Override
+    void releaseShared(final int slot) {
+        this.shared.releaseSlot(slot);
+    }
+
+    /**
+     * Slots parked in a magazine are used in the shared pool, so they are never evicted.
+     */
+    @Override
+    boolean trySetSlot(final int slot) {
+        return this.shared.trySetSlot(slot);
+    }
+
+    @Override
+    public void cleanAll() {
+        this.beforeCleanAll();
+        this.generation++;
+        this.shared.cleanAll();
+        this.afterCleanAll();
+    }
+
+    /**
+     * Slots parked in the magazines of the threads are counted as used.
+     */
+    @Override
+    int inUse() {
+        return this.shared.inUse();
+    }
+
+    @Override
+    void setStats(final PoolStatsRecorder stats) {
+        super.setStats(stats);
+        this.shared.setStats(stats);
+    }
+
+    @Override
+    public @NotNull PoolConcurrency poolConcurrency() {
+        return this.shared.poolConcurrency();
+    }
+
+    private Magazine newMagazine() {
+        // A thread using the pool for the first time is a good time to empty the magazines of the ended ones
+        this.reclaim(null, true);
+        final Magazine magazine = new Magazine(this.capacity, Thread.currentThread());
+        this.allMagazines.add(magazine);
+        return magazine;
+    }
+
+    /**
+     * Must be called while holding the lock of the magazine.
+     */
+    private void checkGeneration(final Magazine magazine) {
+        final int generation = this.generation;
+        if (magazine.generation != generation) {
+            // Slots of an older generation were released by cleanAll
+            magazine.generation = generation;
+            magazine.count = 0;
+        }
+    }
+
+    /**
+     * Give the free slots of the other magazines back to the shared pool: half of them for live threads, all of them
+     * for the threads that ended. The lock of {@code current} must not be held, two threads reclaiming at the same
+     * time would deadlock otherwise.
+     *
+     * @param deadOnly whether the magazines of live threads are left untouched
+     * @return whether any slot was given back
+     */
+    private boolean reclaim(final Magazine current, final boolean deadOnly) {
+        boolean reclaimed = false;
+        for (final Iterator<Magazine> iterator = this.allMagazines.iterator(); iterator.hasNext(); ) {
+            final Magazine magazine = iterator.next();
+            if (magazine == current) {
+                continue;
+            }
+            final Thread owner = magazine.owner.get();
+            final boolean dead = owner == null || !owner.isAlive();
+            if (!dead && deadOnly) {
+                continue;
+            }
+            synchronized (magazine) {
+                this.checkGeneration(magazine);
+                final int count = dead ? magazine.count : (magazine.count + 1) / 2;
+                if (count > 0) {
+                    this.flush(magazine, count);
+                    reclaimed = true;
+                }
+            }
+            if (dead) {
+                iterator.remove();
+            }
+        }
+        return reclaimed;
+    }
+
+    private boolean refill(final Magazine magazine) {
+        final int[] slots = magazine.slots;
+        int count = 0;
+        for (int i = 0; i < this.batchSize; i++) {
+            final int slot = this.shared.acquireSlot();
+            if (slot < 0) {
+                break;
+            }
+            slots[this.batchSize - 1 - count++] = slot;
+        }
+        if (count == 0) {
+            return false;
+        }
+        if (count < this.batchSize) {
+            System.arraycopy(slots, this.batchSize - count, slots, 0, count);
+        }
+        magazine.count = count;
+        return true;
+    }
+
+    private void flush(final Magazine magazine, final int count) {
+        final int[] slots = magazine.slots;
+        final int from = magazine.count - count;
+        for (int i = from; i < magazine.count; i++) {
+            this.shared.releaseSlot(slots[i]);
+        }
+        magazine.count = from;
+    }
+
+    private static final class Magazine {
+
+        private final int[] slots;
+        private final WeakReference<Thread> owner;
+        private int count;
+        private int generation;
+
+        private Magazine(final int capacity, final @NotNull Thread owner) {
+            this.slots = new int[capacity];
+            this.owner = new WeakReference<>(owner);
+        }
+
+    }
+
+}
@@ -28,6 +28,11 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Range;
 
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
@@ -47,6 +52,13 @@ public interface Pool<T> {
     @Contract(pure = true)
     @NotNull PoolConcurrency poolConcurrency();
 
+    /**
+     * @return a snapshot of the usage of this pool. Counters are only recorded by pools built with
+     * {@link Builder#recordStats()}
+     */
+    @Contract("-> new")
+    @NotNull PoolStats stats();
+
     interface Builder<T> {
 
         @Contract("_ -> this")
@@ -58,12 +70,69 @@ public interface Pool<T> {
         @Contract("_ -> this")
         @NotNull Builder<T> concurrency(final @NotNull PoolConcurrency concurrency);
 
+        /**
+         * Without cleaner, pools of a {@link be.yvanmazy.nomoreinstance.annotation.Poolable} class use its generated
+         * resetter.
+         */
         @Contract("_ -> this")
         @NotNull Builder<T> cleaner(final @NotNull UnaryOperator<T> cleaner);
 
         @Contract("-> this")
         @NotNull Builder<T> withoutCleaner();
 
+        /**
+         * Run the cleaner on the acquiring thread, right before an object is handed out. This is the default.
+         */
+        @Contract("-> this")
+        @NotNull Builder<T> cleanOnAcquire();
+
+        /**
+         * Run the cleaner on the releasing thread, when an object is given back to a {@link CleanablePool}. Sweep pools
+         * clean the objects handed out when {@link SweepCleanablePool#cleanAll()} is called. Objects still in use when
+         * {@link CleanablePool#cleanAll()} is called are cleaned by it, on the calling thread.
+         */
+        @Contract("-> this")
+        @NotNull Builder<T> cleanOnRelease();
+
+        /**
+         * Same as {@link #cleanOnRelease()}, but the cleaner runs on {@code executor}, and a slot only becomes available
+         * again once it has been cleaned. Only supported by thread-safe {@link CleanablePool}s without magazine.
+         * <p>
+         * Releasing does not allocate, every slot has its own task built with the pool. The executor may still allocate
+         * to queue it.
+         */
+        @Contract("_ -> this")
+        @NotNull Builder<T> cleanAsync(final @NotNull Executor executor);
+
+        /**
+         * Put a per-thread magazine of free slots in front of a {@link CleanablePool}. Only useful with a thread-safe
+         * concurrency, where it avoids touching the shared bitmap for most acquire/release pairs.
+         *
+         * @param capacity  maximum number of free slots kept by a thread
+         * @param batchSize number of slots moved at once between a magazine and the shared pool
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder<T> magazine(final int capacity, final int batchSize);
+
+        @Contract("-> this")
+        @NotNull Builder<T> withoutMagazine();
+
+        /**
+         * Record the counters returned by {@link Pool#stats()}.
+         */
+        @Contract("-> this")
+        @NotNull Builder<T> recordStats();
+
+        @Contract("-> this")
+        @NotNull Builder<T> withoutStats();
+
+        /**
+         * Whether {@link CleanablePool#acquire(java.time.Duration)} queues behind the threads already waiting instead of
+         * taking a free slot first. Released slots are always handed to the oldest waiter. Disabled by default.
+         */
+        @Contract("_ -> this")
+        @NotNull Builder<T> fairAcquire(final boolean fair);
+
         @Contract("_, _ -> new")
         @NotNull CleanablePool<T> build(final @NotNull Class<T> objectClass, final int size);
 
@@ -73,9 +142,134 @@ public interface Pool<T> {
         @Contract("_ -> new")
         @NotNull CleanablePool<T> build(final @NotNull T[] poolArray);
 
+        /**
+         * Track one {@link Cleanable} out of {@code sampleRate} handed out by a {@link CleanablePool}. When a tracked
+         * {@link Cleanable} is garbage collected without being closed, its acquisition stack trace is logged and its
+         * slot is reclaimed the next time the pool runs out. Keep {@code sampleRate} high on hot pools, tracking costs
+         * a stack trace and a {@link java.lang.ref.Cleaner} registration.
+         *
+         * @param sampleRate {@code 1} to track every {@link Cleanable}
+         */
+        @Contract("_ -> this")
+        @NotNull Builder<T> trackLeaks(final @Range(from = 1L, to = Integer.MAX_VALUE) int sampleRate);
+
+        @Contract("-> this")
+        @NotNull Builder<T> withoutLeakTracking();
+
+        /**
+         * Let {@link CleanablePool#evictIdle()} drop the objects of the slots unused for {@code idleTime}. A supplier is
+         * required to recreate them.
+         */
+        @Contract("_ -> this")
+        @NotNull Builder<T> evictIdle(final @NotNull Duration idleTime);
+
+        /**
+         * Same as {@link #evictIdle(Duration)}, with a callback receiving every evicted object.
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder<T> evictIdle(final @NotNull Duration idleTime, final @NotNull Consumer<? super T> disposer);
+
+        @Contract("-> this")
+        @NotNull Builder<T> withoutIdleEviction();
+
+        /**
+         * Let {@link ElasticCleanablePool#adapt()} size the pool from the demand observed over the last {@code windows}
+         * windows. Only supported by elastic pools, which do not call {@code adapt()} by themselves.
+         *
+         * @param percentile the share of windows whose demand the size should cover, {@code 1} for the busiest window
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder<T> adaptiveSizing(final @Range(from = 1L, to = Integer.MAX_VALUE) int windows,
+                                           final double percentile);
+
+        @Contract("-> this")
+        @NotNull Builder<T> withoutAdaptiveSizing();
+
+        /**
+         * Give every 64-slot word of a {@link PoolConcurrency#LOCK_FREE} bitmap, and the index of a lock-free sweep pool,
+         * its own 128 bytes. Threads using different words then stop invalidating each other's cache lines, at the cost
+         * of 2 bytes per slot. Only worth it with many threads, especially across sockets. Ignored by other concurrency
+         * levels and by pools of 64 slots or less.
+         */
+        @Contract("-> this")
+        @NotNull Builder<T> paddedLayout();
+
+        @Contract("-> this")
+        @NotNull Builder<T> withoutPaddedLayout();
+
+        /**
+         * Give each {@link CleanablePool} built by {@link #build(Object[])} its own hidden class, with the supplier and
+         * the cleaner bound as constants. Calls to them then stay monomorphic and can be inlined, even when many pools
+         * use different lambdas. Building a pool becomes slower, so only use it for long-lived pools. Ignored by the
+         * other pool types.
+         */
+        @Contract("-> this")
+        @NotNull Builder<T> specialize();
+
+        @Contract("-> this")
+        @NotNull Builder<T> withoutSpecialization();
+
+        /**
+         * Build a {@link CleanablePool} that grows on overflow, up to {@code maxSize} slots. A supplier is required.
+         */
+        @Contract("_, _, _ -> new")
+        @NotNull ElasticCleanablePool<T> buildElastic(final @NotNull Class<T> objectClass, final int size, final int maxSize);
+
+        @Contract("_, _ -> new")
+        @NotNull ElasticCleanablePool<T> buildElastic(final @NotNull T[] poolArray, final int maxSize);
+
         @Contract("_ -> new")
         @NotNull SweepCleanablePool<T> buildSweep(final @NotNull T[] poolArray);
 
+        /**
+         * Build a {@link KeyedPool} creating one {@link CleanablePool} per key, filled by {@code factory}. Every other
+         * setting of this builder applies to each sub-pool, except the supplier.
+         */
+        @Contract("_, _, _ -> new")
+        <K> @NotNull KeyedPool<K, T> buildKeyed(final @NotNull Function<? super K, ? extends T> factory, final int perKeySize,
+                                                final int maxSize);
+
+        /**
+         * Same as {@link #buildKeyed(Function, int, int)} for {@link Class} keys, looked up through a {@link ClassValue}
+         * instead of hashing.
+         */
+        @Contract("_, _, _ -> new")
+        @NotNull KeyedPool<Class<?>, T> buildClassKeyed(final @NotNull Function<? super Class<?>, ? extends T> factory,
+                                                        final int perKeySize, final int maxSize);
+
+        /**
+         * Same as {@link #buildKeyed(Function, int, int)} for the int keys from {@code 0} to {@code keyCount} excluded,
+         * looked up in an array.
+         */
+        @Contract("_, _, _, _ -> new")
+        @NotNull IntKeyedPool<T> buildIntKeyed(final @NotNull IntFunction<? extends T> factory, final int keyCount,
+                                               final int perKeySize, final int maxSize);
+
+        /**
+         * Build an {@link ArenaPool} of {@code chunks} chunks holding {@code chunkSize} objects each.
+         */
+        @Contract("_, _, _ -> new")
+        @NotNull ArenaPool<T> buildArena(final @NotNull Class<T> objectClass, final int chunkSize, final int chunks);
+
+        /**
+         * Build an {@link ArenaPool} splitting the array into chunks of {@code chunkSize} objects.
+         */
+        @Contract("_, _ -> new")
+        @NotNull ArenaPool<T> buildArena(final @NotNull T[] poolArray, final int chunkSize);
+
+        /**
+         * Build an {@link EpochSweepCleanablePool} of {@code epochs} regions holding {@code epochSize} objects each.
+         */
+        @Contract("_, _, _ -> new")
+        @NotNull EpochSweepCleanablePool<T> buildEpochSweep(final @NotNull Class<T> objectClass, final int epochSize,
+                                                            final int epochs);
+
+        /**
+         * Build an {@link EpochSweepCleanablePool} splitting the array into {@code epochs} regions of the same size.
+         */
+        @Contract("_, _ -> new")
+        @NotNull EpochSweepCleanablePool<T> buildEpochSweep(final @NotNull T[] poolArray, final int epochs);
+
     }
 
 }
\ No newline at end of file
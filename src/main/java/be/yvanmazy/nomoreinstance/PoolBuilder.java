@@ -27,7 +27,13 @@ package be.yvanmazy.nomoreinstance;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Array;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
@@ -36,6 +42,19 @@ final class PoolBuilder<T> implements Pool.Builder<T> {
     private Supplier<T> supplier;
     private PoolConcurrency concurrency = PoolConcurrency.DEFAULT;
     private UnaryOperator<T> cleaner;
+    private boolean cleanOnRelease;
+    private Executor cleanExecutor;
+    private int magazineCapacity;
+    private int magazineBatchSize;
+    private boolean recordStats;
+    private boolean fairAcquire;
+    private int leakSampleRate;
+    private Duration idleTime;
+    private Consumer<? super T> disposer;
+    private int sizingWindows;
+    private double sizingPercentile;
+    private boolean paddedLayout;
+    private boolean specialize;
 
     @Override
     public Pool.@NotNull Builder<T> supplier(final @NotNull Supplier<T> supplier) {
@@ -67,6 +86,144 @@ final class PoolBuilder<T> implements Pool.Builder<T> {
         return this;
     }
 
+    @Override
+    public Pool.@NotNull Builder<T> cleanOnAcquire() {
+        this.cleanOnRelease = false;
+        this.cleanExecutor = null;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> cleanOnRelease() {
+        this.cleanOnRelease = true;
+        this.cleanExecutor = null;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> cleanAsync(final @NotNull Executor executor) {
+        this.cleanOnRelease = true;
+        this.cleanExecutor = Objects.requireNonNull(executor, "executor must not be null");
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> magazine(final int capacity, final int batchSize) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("magazine capacity must be positive");
+        }
+        if (batchSize < 1 || batchSize > capacity) {
+            throw new IllegalArgumentException("magazine batch size must be between 1 and the magazine capacity");
+        }
+        this.magazineCapacity = capacity;
+        this.magazineBatchSize = batchSize;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> withoutMagazine() {
+        this.magazineCapacity = 0;
+        this.magazineBatchSize = 0;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> recordStats() {
+        this.recordStats = true;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> withoutStats() {
+        this.recordStats = false;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> fairAcquire(final boolean fair) {
+        this.fairAcquire = fair;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> trackLeaks(final int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be positive");
+        }
+        this.leakSampleRate = sampleRate;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> withoutLeakTracking() {
+        this.leakSampleRate = 0;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> evictIdle(final @NotNull Duration idleTime) {
+        this.idleTime = requireIdleTime(idleTime);
+        this.disposer = null;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> evictIdle(final @NotNull Duration idleTime, final @NotNull Consumer<? super T> disposer) {
+        this.idleTime = requireIdleTime(idleTime);
+        this.disposer = Objects.requireNonNull(disposer, "disposer must not be null");
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> withoutIdleEviction() {
+        this.idleTime = null;
+        this.disposer = null;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> adaptiveSizing(final int windows, final double percentile) {
+        if (windows < 1) {
+            throw new IllegalArgumentException("windows must be positive");
+        }
+        if (!(percentile > 0.0D && percentile <= 1.0D)) {
+            throw new IllegalArgumentException("percentile must be in ]0, 1]");
+        }
+        this.sizingWindows = windows;
+        this.sizingPercentile = percentile;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> withoutAdaptiveSizing() {
+        this.sizingWindows = 0;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> paddedLayout() {
+        this.paddedLayout = true;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> withoutPaddedLayout() {
+        this.paddedLayout = false;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> specialize() {
+        this.specialize = true;
+        return this;
+    }
+
+    @Override
+    public Pool.@NotNull Builder<T> withoutSpecialization() {
+        this.specialize = false;
+        return this;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public @NotNull CleanablePool<T> build(final @NotNull Class<T> objectClass, final int size) {
@@ -81,26 +238,286 @@ final class PoolBuilder<T> implements Pool.Builder<T> {
 
     @Override
     public @NotNull CleanablePool<T> build(final @NotNull T[] poolArray) {
+        this.requireFixedSize();
+        this.prepareArray(poolArray);
+        return this.buildCleanable(poolArray, this.supplier);
+    }
+
+    @Override
+    public <K> @NotNull KeyedPool<K, T> buildKeyed(final @NotNull Function<? super K, ? extends T> factory,
+                                                   final int perKeySize, final int maxSize) {
+        Objects.requireNonNull(factory, "factory must not be null");
+        checkKeyedSizes(perKeySize, maxSize);
+        return new KeyedPoolImpl.Hashed<>(this.subPoolFactory(), factory, perKeySize, maxSize, this.concurrency);
+    }
+
+    @Override
+    public @NotNull KeyedPool<Class<?>, T> buildClassKeyed(final @NotNull Function<? super Class<?>, ? extends T> factory,
+                                                           final int perKeySize, final int maxSize) {
+        Objects.requireNonNull(factory, "factory must not be null");
+        checkKeyedSizes(perKeySize, maxSize);
+        return new KeyedPoolImpl.ClassKeyed<>(this.subPoolFactory(), factory, perKeySize, maxSize, this.concurrency);
+    }
+
+    @Override
+    public @NotNull IntKeyedPool<T> buildIntKeyed(final @NotNull IntFunction<? extends T> factory, final int keyCount,
+                                                  final int perKeySize, final int maxSize) {
+        Objects.requireNonNull(factory, "factory must not be null");
+        if (keyCount < 0) {
+            throw new IllegalArgumentException("keyCount must not be negative");
+        }
+        checkKeyedSizes(perKeySize, maxSize);
+        return new KeyedPoolImpl.Dense<>(this.subPoolFactory(), factory, keyCount, perKeySize, maxSize, this.concurrency);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull ElasticCleanablePool<T> buildElastic(final @NotNull Class<T> objectClass, final int size, final int maxSize) {
+        return this.buildElastic((T[]) Array.newInstance(objectClass, size), maxSize);
+    }
+
+    @Override
+    public @NotNull ElasticCleanablePool<T> buildElastic(final @NotNull T[] poolArray, final int maxSize) {
+        if (this.supplier == null) {
+            throw new IllegalStateException("Elastic pools require a supplier to fill their new slots");
+        }
+        if (this.magazineCapacity > 0) {
+            throw new IllegalStateException("Elastic pools do not support magazines");
+        }
+        if (maxSize < poolArray.length) {
+            throw new IllegalArgumentException("maxSize must be greater than or equal to the pool size");
+        }
         this.prepareArray(poolArray);
-        final CleanablePoolImpl<T> pool = CleanablePoolImpl.build(poolArray, this.concurrency);
+        final ElasticCleanablePoolImpl<T> pool =
+                ElasticCleanablePoolImpl.build(Arrays.copyOf(poolArray, maxSize), poolArray.length, this.concurrency,
+                        this.paddedLayout);
         pool.setSupplier(this.supplier);
-        pool.setCleaner(this.cleaner);
+        this.applyCleaner(pool);
+        pool.setStats(this.createStats());
+        PoolEvents.register(pool);
+        pool.setFairAcquire(this.fairAcquire);
+        pool.setLeakTracker(this.createLeakTracker());
+        pool.setIdleEvictor(this.createIdleEvictor(pool.pool.length, this.supplier));
+        if (this.sizingWindows > 0) {
+            pool.setSizer(new AdaptiveSizer(this.sizingWindows, this.sizingPercentile));
+        }
         return pool;
     }
 
     @Override
     public @NotNull SweepCleanablePool<T> buildSweep(final @NotNull T[] poolArray) {
+        this.requireFixedSize();
         this.prepareArray(poolArray);
         final var pool = switch (this.concurrency) {
             case NOT_CONCURRENT -> new SweepCleanablePoolImpl<>(poolArray);
             case SYNCHRONIZED -> new SweepCleanablePoolImpl.Synchronized<>(poolArray);
-            case LOCK_FREE -> new SweepCleanablePoolImpl.LockFree<>(poolArray);
+            case LOCK_FREE -> new SweepCleanablePoolImpl.LockFree<>(poolArray, this.paddedLayout);
+            case STRIPED -> new SweepCleanablePoolImpl.Striped<>(poolArray);
         };
         pool.setSupplier(this.supplier);
-        pool.setCleaner(this.cleaner);
+        this.applyCleaner(pool);
+        pool.setStats(this.createStats());
+        PoolEvents.register(pool);
+        return pool;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull EpochSweepCleanablePool<T> buildEpochSweep(final @NotNull Class<T> objectClass, final int epochSize,
+                                                               final int epochs) {
+        if (epochSize < 1 || epochs < 2 || (long) epochSize * epochs > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("epochSize must be positive and epochs at least 2");
+        }
+        return this.buildEpochSweep((T[]) Array.newInstance(objectClass, epochSize * epochs), epochs);
+    }
+
+    @Override
+    public @NotNull EpochSweepCleanablePool<T> buildEpochSweep(final @NotNull T[] poolArray, final int epochs) {
+        if (epochs < 2) {
+            throw new IllegalArgumentException("epochs must be at least 2");
+        }
+        if (poolArray.length % epochs != 0) {
+            throw new IllegalArgumentException("The pool size must be a multiple of the number of epochs");
+        }
+        this.requireFixedSize();
+        this.prepareArray(poolArray);
+        final EpochSweepCleanablePoolImpl<T> pool = EpochSweepCleanablePoolImpl.build(poolArray, epochs, this.concurrency);
+        pool.setSupplier(this.supplier);
+        this.applyCleaner(pool);
+        pool.setStats(this.createStats());
+        PoolEvents.register(pool);
+        return pool;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @NotNull ArenaPool<T> buildArena(final @NotNull Class<T> objectClass, final int chunkSize, final int chunks) {
+        if (chunkSize < 1 || chunks < 0 || (long) chunkSize * chunks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("chunkSize must be positive and chunks must not be negative");
+        }
+        return this.buildArena((T[]) Array.newInstance(objectClass, chunkSize * chunks), chunkSize);
+    }
+
+    @Override
+    public @NotNull ArenaPool<T> buildArena(final @NotNull T[] poolArray, final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (poolArray.length % chunkSize != 0) {
+            throw new IllegalArgumentException("The pool size must be a multiple of the chunk size");
+        }
+        this.requireFixedSize();
+        this.prepareArray(poolArray);
+        final ArenaPoolImpl<T> pool = new ArenaPoolImpl<>(poolArray, chunkSize, this.concurrency);
+        pool.setSupplier(this.supplier);
+        this.applyCleaner(pool);
+        pool.setStats(this.createStats());
+        PoolEvents.register(pool);
         return pool;
     }
 
+    private CleanablePoolImpl<T> buildCleanable(final T[] poolArray, final Supplier<T> supplier) {
+        CleanablePoolImpl<T> pool = CleanablePoolImpl.build(poolArray, this.concurrency, this.paddedLayout);
+        if (this.magazineCapacity > 0) {
+            pool = new MagazineCleanablePoolImpl<>(pool, this.magazineCapacity, this.magazineBatchSize);
+        }
+        if (this.specialize) {
+            final UnaryOperator<T> cleaner = this.resolveCleaner(poolArray);
+            pool = PoolSpecializer.specialize(pool, supplier, this.cleanOnRelease ? null : cleaner,
+                    this.cleanOnRelease ? cleaner : null);
+        }
+        pool.setSupplier(supplier);
+        this.applyCleaner(pool);
+        pool.setStats(this.createStats());
+        PoolEvents.register(pool);
+        pool.setFairAcquire(this.fairAcquire);
+        pool.setLeakTracker(this.createLeakTracker());
+        pool.setIdleEvictor(this.createIdleEvictor(pool.pool.length, supplier));
+        return pool;
+    }
+
+    /**
+     * Sub-pools are built from a copy of this builder, so changing it afterwards does not affect the keyed pool. Their
+     * slots are filled by the key factory when the sub-pool is created.
+     */
+    private KeyedPoolImpl.SubPoolFactory<T> subPoolFactory() {
+        // Invalid settings fail here rather than on the first lookup of a key
+        this.requireFixedSize();
+        this.checkCleanExecutor(true);
+        final PoolBuilder<T> copy = this.copy();
+        return (supplier, size) -> copy.buildCleanable(fillSubPool(supplier, size), supplier);
+    }
+
+    /**
+     * The array is typed after the class of the objects when they all have the same one, so that the sub-pools of a
+     * {@link be.yvanmazy.nomoreinstance.annotation.Poolable} class find its generated resetter.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T[] fillSubPool(final Supplier<T> supplier, final int size) {
+        final Object[] objects = new Object[size];
+        Class<?> type = null;
+        for (int i = 0; i < size; i++) {
+            final Object object = supplier.get();
+            objects[i] = object;
+            final Class<?> objectType = object != null ? object.getClass() : Object.class;
+            type = type == null || type == objectType ? objectType : Object.class;
+        }
+        if (type == null || type == Object.class) {
+            return (T[]) objects;
+        }
+        final T[] array = (T[]) Array.newInstance(type, size);
+        System.arraycopy(objects, 0, array, 0, size);
+        return array;
+    }
+
+    private PoolBuilder<T> copy() {
+        final PoolBuilder<T> copy = new PoolBuilder<>();
+        copy.supplier = this.supplier;
+        copy.concurrency = this.concurrency;
+        copy.cleaner = this.cleaner;
+        copy.cleanOnRelease = this.cleanOnRelease;
+        copy.cleanExecutor = this.cleanExecutor;
+        copy.magazineCapacity = this.magazineCapacity;
+        copy.magazineBatchSize = this.magazineBatchSize;
+        copy.recordStats = this.recordStats;
+        copy.fairAcquire = this.fairAcquire;
+        copy.leakSampleRate = this.leakSampleRate;
+        copy.idleTime = this.idleTime;
+        copy.disposer = this.disposer;
+        copy.sizingWindows = this.sizingWindows;
+        copy.sizingPercentile = this.sizingPercentile;
+        copy.paddedLayout = this.paddedLayout;
+        copy.specialize = this.specialize;
+        return copy;
+    }
+
+    private static void checkKeyedSizes(final int perKeySize, final int maxSize) {
+        if (perKeySize < 0 || maxSize < 0) {
+            throw new IllegalArgumentException("perKeySize and maxSize must not be negative");
+        }
+    }
+
+    private UnaryOperator<T> resolveCleaner(final T[] array) {
+        return this.cleaner != null ? this.cleaner : GeneratedResetters.find(array.getClass().getComponentType());
+    }
+
+    private void applyCleaner(final AbstractPool<T> pool) {
+        final UnaryOperator<T> cleaner = this.resolveCleaner(pool.pool);
+        if (this.cleanOnRelease) {
+            pool.setReleaseCleaner(cleaner);
+        } else {
+            pool.setCleaner(cleaner);
+        }
+        this.checkCleanExecutor(pool instanceof CleanablePoolImpl);
+        if (this.cleanExecutor != null) {
+            ((CleanablePoolImpl<T>) pool).setCleanExecutor(this.cleanExecutor);
+        }
+    }
+
+    private void checkCleanExecutor(final boolean cleanable) {
+        if (this.cleanExecutor == null) {
+            return;
+        }
+        if (!cleanable) {
+            throw new IllegalStateException("Only cleanable pools support asynchronous cleaning");
+        }
+        if (!this.concurrency.isThreadSafe() || this.magazineCapacity > 0) {
+            throw new IllegalStateException("Asynchronous cleaning requires a thread-safe concurrency without magazine");
+        }
+    }
+
+    private IdleEvictor<T> createIdleEvictor(final int size, final Supplier<T> supplier) {
+        if (this.idleTime == null) {
+            return null;
+        }
+        if (supplier == null) {
+            throw new IllegalStateException("Idle eviction requires a supplier to recreate the evicted objects");
+        }
+        return new IdleEvictor<>(size, this.idleTime.toNanos(), this.disposer);
+    }
+
+    private void requireFixedSize() {
+        if (this.sizingWindows > 0) {
+            throw new IllegalStateException("Adaptive sizing requires an elastic pool");
+        }
+    }
+
+    private LeakTracker createLeakTracker() {
+        return this.leakSampleRate > 0 ? new LeakTracker(this.leakSampleRate) : null;
+    }
+
+    private PoolStatsRecorder createStats() {
+        return this.recordStats ? new PoolStatsRecorder() : null;
+    }
+
+    private static Duration requireIdleTime(final Duration idleTime) {
+        Objects.requireNonNull(idleTime, "idleTime must not be null");
+        if (idleTime.isNegative()) {
+            throw new IllegalArgumentException("idleTime must not be negative");
+        }
+        return idleTime;
+    }
+
     private void prepareArray(final T[] array) {
         final Supplier<T> supplier = this.supplier;
         if (supplier != null) {
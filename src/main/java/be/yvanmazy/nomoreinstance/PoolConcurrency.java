@@ -30,13 +30,14 @@ public enum PoolConcurrency {
 
     NOT_CONCURRENT,
     SYNCHRONIZED,
-    LOCK_FREE;
+    LOCK_FREE,
+    STRIPED;
 
     public static final PoolConcurrency DEFAULT = NOT_CONCURRENT;
 
     @Contract(pure = true)
     public boolean isThreadSafe() {
-        return this == SYNCHRONIZED || this == LOCK_FREE;
+        return this != NOT_CONCURRENT;
     }
 
 }
\ No newline at end of file
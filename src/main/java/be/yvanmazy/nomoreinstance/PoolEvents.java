@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Flight Recorder events of the pools. Pools check {@link Event#isEnabled()} before filling an event, so when no
+ * recording asks for them the only cost is that branch.
+ * <p>
+ * Runtime images may be linked without {@code jdk.jfr}: every check then returns {@code false} without loading any
+ * class of it, and the periodic occupancy event is only hooked when the first pool is registered.
+ */
+final class PoolEvents {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private static final Set<AbstractPool<?>> POOLS = Collections.newSetFromMap(new WeakHashMap<>());
+    private static boolean hooked;
+
+    private PoolEvents() throws IllegalAccessException {
+        throw new IllegalAccessException("You cannot instantiate this class");
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, PoolEvents.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Register a pool whose occupancy is sampled periodically. Pools are held weakly.
+     */
+    static void register(final @NotNull AbstractPool<?> pool) {
+        if (!AVAILABLE) {
+            return;
+        }
+        synchronized (POOLS) {
+            if (!hooked) {
+                FlightRecorder.addPeriodicEvent(OccupancyEvent.class, PoolEvents::emitOccupancy);
+                hooked = true;
+            }
+            POOLS.add(pool);
+        }
+    }
+
+    static boolean isSupplierFallbackEnabled() {
+        return AVAILABLE && new SupplierFallbackEvent().isEnabled();
+    }
+
+    static boolean isExhaustionEnabled() {
+        return AVAILABLE && new ExhaustionEvent().isEnabled();
+    }
+
+    static boolean isSlowCleanerEnabled() {
+        return AVAILABLE && new SlowCleanerEvent().isEnabled();
+    }
+
+    static void supplierFallback(final @NotNull AbstractPool<?> pool) {
+        final SupplierFallbackEvent event = new SupplierFallbackEvent();
+        event.fill(pool);
+        event.commit();
+    }
+
+    static void exhaustion(final @NotNull AbstractPool<?> pool) {
+        final ExhaustionEvent event = new ExhaustionEvent();
+        event.fill(pool);
+        event.commit();
+    }
+
+    /**
+     * @return an event to pass to {@link #endAcquire(SlowAcquireEvent, AbstractPool)}, or {@code null} if it is not
+     * enabled
+     */
+    static @Nullable SlowAcquireEvent beginAcquire() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        final SlowAcquireEvent event = new SlowAcquireEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endAcquire(final @NotNull SlowAcquireEvent event, final @NotNull AbstractPool<?> pool) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.fill(pool);
+            event.commit();
+        }
+    }
+
+    /**
+     * Apply a cleaner and commit an event if it is slower than the threshold of the recording.
+     */
+    static <T> T clean(final @NotNull AbstractPool<?> pool, final @NotNull UnaryOperator<T> cleaner, final T object,
+                       final boolean onRelease) {
+        final SlowCleanerEvent event = new SlowCleanerEvent();
+        event.begin();
+        final T cleaned = cleaner.apply(object);
+        event.end();
+        if (event.shouldCommit()) {
+            event.fill(pool);
+            event.onRelease = onRelease;
+            event.commit();
+        }
+        return cleaned;
+    }
+
+    private static void emitOccupancy() {
+        final List<AbstractPool<?>> pools;
+        synchronized (POOLS) {
+            pools = new ArrayList<>(POOLS);
+        }
+        for (final AbstractPool<?> pool : pools) {
+            final OccupancyEvent event = new OccupancyEvent();
+            event.fill(pool);
+            event.commit();
+        }
+    }
+
+    @Category("NoMoreInstance")
+    abstract static class PoolEvent extends Event {
+
+        @Label("Pool Type")
+        Class<?> poolType;
+
+        @Label("Pool Id")
+        @Description("Identity hash code of the pool")
+        int poolId;
+
+        @Label("Size")
+        int size;
+
+        @Label("In Use")
+        int inUse;
+
+        final void fill(final @NotNull AbstractPool<?> pool) {
+            this.poolType = pool.getClass();
+            this.poolId = System.identityHashCode(pool);
+            this.size = pool.size();
+            this.inUse = pool.inUse();
+        }
+
+    }
+
+    @Name("be.yvanmazy.nomoreinstance.SupplierFallback")
+    @Label("Pool Supplier Fallback")
+    @Description("An object was created by the supplier because the pool had no free slot")
+    @Enabled(false)
+    static final class SupplierFallbackEvent extends PoolEvent {
+    }
+
+    @Name("be.yvanmazy.nomoreinstance.Exhaustion")
+    @Label("Pool Exhaustion")
+    @Description("An acquisition failed because the pool had no free slot and no supplier")
+    static final class ExhaustionEvent extends PoolEvent {
+    }
+
+    @Name("be.yvanmazy.nomoreinstance.SlowAcquire")
+    @Label("Slow Pool Acquisition")
+    @Threshold("1 ms")
+    static final class SlowAcquireEvent extends PoolEvent {
+    }
+
+    @Name("be.yvanmazy.nomoreinstance.SlowCleaner")
+    @Label("Slow Pool Cleaner")
+    @Threshold("1 ms")
+    static final class SlowCleanerEvent extends PoolEvent {
+
+        @Label("On Release")
+        boolean onRelease;
+
+    }
+
+    @Name("be.yvanmazy.nomoreinstance.Occupancy")
+    @Label("Pool Occupancy")
+    @Period("1 s")
+    @StackTrace(false)
+    static final class OccupancyEvent extends PoolEvent {
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Named pools, to find them again instead of building duplicates and to audit them from one place. Registries hold
+ * their pools strongly until they are unregistered.
+ * <p>
+ * Occupancy of {@link PoolConcurrency#NOT_CONCURRENT} pools read by another thread may be stale.
+ */
+public interface PoolRegistry {
+
+    /**
+     * @return the registry holding the pools returned by {@link #shared(Class, Supplier)}
+     */
+    @Contract(pure = true)
+    static @NotNull PoolRegistry global() {
+        return PoolRegistryImpl.GLOBAL;
+    }
+
+    @Contract(value = "-> new", pure = true)
+    static @NotNull PoolRegistry create() {
+        return new PoolRegistryImpl();
+    }
+
+    /**
+     * @return the pool shared for {@code type}, looked up through a {@link ClassValue}
+     * @throws IllegalStateException if no pool is shared for {@code type}
+     */
+    static <T> @NotNull CleanablePool<T> shared(final @NotNull Class<T> type) {
+        return PoolRegistryImpl.shared(type);
+    }
+
+    /**
+     * Get the pool shared for {@code type}, or build it with {@code factory} and register it in {@link #global()} under
+     * the name of the class. The factory is called at most once per class, unless the pool is unregistered.
+     * <p>
+     * Classes with the same name from different class loaders have their own pool. When the name is already taken in
+     * {@link #global()}, the pool is registered under the name followed by {@code @} and the identity hash code of the
+     * class loader in hexadecimal, instead of failing.
+     */
+    static <T> @NotNull CleanablePool<T> shared(final @NotNull Class<T> type,
+                                                final @NotNull Supplier<? extends CleanablePool<T>> factory) {
+        return PoolRegistryImpl.shared(type, factory);
+    }
+
+    /**
+     * @return {@code pool}
+     * @throws IllegalArgumentException if a pool is already registered under {@code name}
+     */
+    @Contract("_, _ -> param2")
+    <P extends Pool<?>> @NotNull P register(final @NotNull String name, final @NotNull P pool);
+
+    /**
+     * @return {@code pool}
+     * @throws IllegalArgumentException if a pool is already registered under {@code name}
+     */
+    @Contract("_, _ -> param2")
+    <P extends ArenaPool<?>> @NotNull P register(final @NotNull String name, final @NotNull P pool);
+
+    /**
+     * @return the pool registered under {@code name}, or {@code null}
+     * @throws IllegalArgumentException if an {@link ArenaPool} is registered under {@code name}
+     */
+    @Contract(pure = true)
+    @Nullable Pool<?> get(final @NotNull String name);
+
+    /**
+     * @return the arena pool registered under {@code name}, or {@code null}
+     * @throws IllegalArgumentException if a pool that is not an {@link ArenaPool} is registered under {@code name}
+     */
+    @Contract(pure = true)
+    @Nullable ArenaPool<?> arena(final @NotNull String name);
+
+    /**
+     * Unregistering a pool of {@link #shared(Class, Supplier)} also stops sharing it, the next call builds a new one.
+     *
+     * @return whether a pool was registered under {@code name}
+     */
+    boolean unregister(final @NotNull String name);
+
+    /**
+     * @return the names of the registered pools, sorted
+     */
+    @Contract("-> new")
+    @NotNull Set<String> names();
+
+    /**
+     * @return a snapshot of every registered pool, sorted by name
+     */
+    @Contract("-> new")
+    @NotNull Map<String, PoolStats> stats();
+
+    /**
+     * @return one line per registered pool with its concurrency, size and occupancy, followed by the totals
+     */
+    @Contract("-> new")
+    @NotNull String dump();
+
+}
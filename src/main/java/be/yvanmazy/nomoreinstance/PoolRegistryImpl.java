@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+final class PoolRegistryImpl implements PoolRegistry {
+
+    static final PoolRegistryImpl GLOBAL = new PoolRegistryImpl();
+
+    private static final ClassValue<AtomicReference<CleanablePool<?>>> SHARED = new ClassValue<>() {
+        @Override
+        protected AtomicReference<CleanablePool<?>> computeValue(final @NotNull Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private final Map<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    @SuppressWarnings("unchecked")
+    static <T> @NotNull CleanablePool<T> shared(final @NotNull Class<T> type) {
+        final CleanablePool<?> pool = SHARED.get(Objects.requireNonNull(type, "type must not be null")).get();
+        if (pool == null) {
+            throw new IllegalStateException("No pool is shared for " + type.getName());
+        }
+        return (CleanablePool<T>) pool;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> @NotNull CleanablePool<T> shared(final @NotNull Class<T> type,
+                                                final @NotNull Supplier<? extends CleanablePool<T>> factory) {
+        Objects.requireNonNull(factory, "factory must not be null");
+        final AtomicReference<CleanablePool<?>> reference = SHARED.get(Objects.requireNonNull(type, "type must not be null"));
+        CleanablePool<?> pool = reference.get();
+        if (pool != null) {
+            return (CleanablePool<T>) pool;
+        }
+        synchronized (reference) {
+            pool = reference.get();
+            if (pool == null) {
+                final CleanablePool<T> created = Objects.requireNonNull(factory.get(), "factory must not return null");
+                GLOBAL.addShared(type, new Entry(created, created::poolConcurrency, created::stats, reference));
+                reference.set(created);
+                pool = created;
+            }
+        }
+        return (CleanablePool<T>) pool;
+    }
+
+    @Override
+    public <P extends Pool<?>> @NotNull P register(final @NotNull String name, final @NotNull P pool) {
+        this.add(name, new Entry(pool, pool::poolConcurrency, pool::stats, null));
+        return pool;
+    }
+
+    @Override
+    public <P extends ArenaPool<?>> @NotNull P register(final @NotNull String name, final @NotNull P pool) {
+        this.add(name, new Entry(pool, pool::poolConcurrency, pool::stats, null));
+        return pool;
+    }
+
+    private void add(final String name, final Entry entry) {
+        Objects.requireNonNull(name, "name must not be null");
+        if (this.entries.putIfAbsent(name, entry) != null) {
+            throw new IllegalArgumentException("A pool is already registered as " + name);
+        }
+    }
+
+    /**
+     * Register a shared pool under the name of its class, or, when that name is taken (by the shared pool of a class
+     * with the same name from another class loader, for example), under the name followed by {@code @} and the
+     * identity hash code of the class loader.
+     */
+    private void addShared(final Class<?> type, final Entry entry) {
+        if (this.entries.putIfAbsent(type.getName(), entry) == null) {
+            return;
+        }
+        final String name = type.getName() + '@' + Integer.toHexString(System.identityHashCode(type.getClassLoader()));
+        String unique = name;
+        for (int i = 2; this.entries.putIfAbsent(unique, entry) != null; i++) {
+            unique = name + '#' + i;
+        }
+    }
+
+    @Override
+    public @Nullable Pool<?> get(final @NotNull String name) {
+        final Entry entry = this.entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.pool() instanceof Pool<?> pool) {
+            return pool;
+        }
+        throw new IllegalArgumentException(name + " is an arena pool");
+    }
+
+    @Override
+    public @Nullable ArenaPool<?> arena(final @NotNull String name) {
+        final Entry entry = this.entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.pool() instanceof ArenaPool<?> pool) {
+            return pool;
+        }
+        throw new IllegalArgumentException(name + " is not an arena pool");
+    }
+
+    @Override
+    public boolean unregister(final @NotNull String name) {
+        final Entry entry = this.entries.remove(name);
+        if (entry == null) {
+            return false;
+        }
+        final AtomicReference<CleanablePool<?>> shared = entry.shared();
+        if (shared != null) {
+            // Locked like the creation of the shared pool, which registers it before publishing it
+            synchronized (shared) {
+                shared.compareAndSet((CleanablePool<?>) entry.pool(), null);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public @NotNull Set<String> names() {
+        return new TreeSet<>(this.entries.keySet());
+    }
+
+    @Override
+    public @NotNull Map<String, PoolStats> stats() {
+        final Map<String, PoolStats> stats = new LinkedHashMap<>();
+        for (final Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().stats().get());
+        }
+        return stats;
+    }
+
+    @Override
+    public @NotNull String dump() {
+        final StringBuilder builder = new StringBuilder();
+        int pools = 0;
+        long size = 0L;
+        long inUse = 0L;
+        for (final Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            final PoolStats stats = entry.getValue().stats().get();
+            pools++;
+            size += stats.size();
+            inUse += stats.inUse();
+            builder.append(entry.getKey())
+                    .append(": concurrency=")
+                    .append(entry.getValue().concurrency().get())
+                    .append(", size=")
+                    .append(stats.size())
+                    .append(", inUse=")
+                    .append(stats.inUse());
+            if (stats.recording()) {
+                builder.append(", highWaterMark=")
+                        .append(stats.highWaterMark())
+                        .append(", hitRate=")
+                        .append(String.format(Locale.ROOT, "%.3f", stats.hitRate()));
+            }
+            builder.append('\n');
+        }
+        return builder.append("total: pools=")
+                .append(pools)
+                .append(", size=")
+                .append(size)
+                .append(", inUse=")
+                .append(inUse)
+                .append('\n')
+                .toString();
+    }
+
+    /**
+     * @param shared the reference of {@link #SHARED} publishing the pool, if it is shared
+     */
+    private record Entry(Object pool,
+                         Supplier<PoolConcurrency> concurrency,
+                         Supplier<PoolStats> stats,
+                         @Nullable AtomicReference<CleanablePool<?>> shared) {
+    }
+
+}
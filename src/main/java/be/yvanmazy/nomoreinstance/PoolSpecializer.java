@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Define one hidden class per pool from the bytecode of {@link SpecializedCleanablePoolImpl}. Hidden classes are not
+ * strongly linked to their class loader, so a specialized pool class is unloaded with its pool.
+ */
+final class PoolSpecializer {
+
+    private static final MethodType CONSTRUCTOR = MethodType.methodType(void.class, CleanablePoolImpl.class);
+
+    private PoolSpecializer() throws IllegalAccessException {
+        throw new IllegalAccessException("You cannot instantiate this class");
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> @NotNull CleanablePoolImpl<T> specialize(final @NotNull CleanablePoolImpl<T> delegate,
+                                                        final @Nullable Supplier<T> supplier,
+                                                        final @Nullable UnaryOperator<T> cleaner,
+                                                        final @Nullable UnaryOperator<T> releaseCleaner) {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(Template.BYTES, new Object[] {supplier, cleaner, releaseCleaner}, true);
+            final MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR);
+            return (CleanablePoolImpl<T>) constructor.invoke(delegate);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new IllegalStateException("Cannot specialize the pool", e);
+        }
+    }
+
+    private static final class Template {
+
+        private static final byte[] BYTES = read();
+
+        private static byte[] read() {
+            final String name = SpecializedCleanablePoolImpl.class.getSimpleName() + ".class";
+            try (final InputStream stream = SpecializedCleanablePoolImpl.class.getResourceAsStream(name)) {
+                if (stream == null) {
+                    throw new IllegalStateException("Cannot find the bytecode of " + name);
+                }
+                return stream.readAllBytes();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+}
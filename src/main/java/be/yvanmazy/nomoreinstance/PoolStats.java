@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Range;
+
+/**
+ * Snapshot of the state of a pool. Counters are only updated when the pool was built with
+ * {@link Pool.Builder#recordStats()}, otherwise they stay at zero and {@link #recording()} is {@code false}.
+ *
+ * @param size              number of slots of the pool
+ * @param inUse             number of slots currently marked as used
+ * @param highWaterMark     peak number of objects handed out by the slots of the pool and not given back yet
+ * @param hits              acquisitions served by a slot of the pool
+ * @param supplierFallbacks acquisitions served by the supplier because every slot was in use
+ * @param exhaustions       acquisitions that failed with a {@link be.yvanmazy.nomoreinstance.exception.NoMoreObjectException}
+ * @param misses            {@link CleanablePool#acquireIndex()} calls that returned {@link CleanablePool#NO_INDEX}
+ * @param casRetries        failed compare-and-set operations of lock-free pools
+ * @param recording         whether the counters are recorded
+ */
+public record PoolStats(@Range(from = 0L, to = Integer.MAX_VALUE) int size,
+                        @Range(from = 0L, to = Integer.MAX_VALUE) int inUse,
+                        @Range(from = 0L, to = Integer.MAX_VALUE) int highWaterMark,
+                        long hits,
+                        long supplierFallbacks,
+                        long exhaustions,
+                        long misses,
+                        long casRetries,
+                        boolean recording) {
+
+    @Contract(pure = true)
+    public long acquisitions() {
+        return this.hits + this.supplierFallbacks + this.exhaustions + this.misses;
+    }
+
+    @Contract(pure = true)
+    public double hitRate() {
+        final long acquisitions = this.acquisitions();
+        return acquisitions == 0L ? 1.0D : (double) this.hits / acquisitions;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters behind {@link PoolStats}. Every counter is a {@link LongAdder}, so recording does not make threads contend
+ * on a single memory location. That includes the number of objects handed out and not given back yet: every hit reads
+ * its sum, and the high-water mark is only written when it grows.
+ */
+final class PoolStatsRecorder {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder supplierFallbacks = new LongAdder();
+    private final LongAdder exhaustions = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder casRetries = new LongAdder();
+    private final LongAdder inUse = new LongAdder();
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+
+    void recordHit() {
+        this.hits.increment();
+        this.inUse.increment();
+        final long inUse = this.inUse.sum();
+        if (inUse > this.highWaterMark.get()) {
+            this.highWaterMark.accumulateAndGet((int) Math.min(Integer.MAX_VALUE, inUse), Math::max);
+        }
+    }
+
+    /**
+     * Objects handed out by a hit were given back.
+     */
+    void recordRelease(final int count) {
+        this.inUse.add(-count);
+    }
+
+    /**
+     * Every object handed out was given back at once by a cleanAll.
+     */
+    void recordReleaseAll() {
+        this.inUse.reset();
+    }
+
+    void recordSupplierFallback() {
+        this.supplierFallbacks.increment();
+    }
+
+    void recordExhaustion() {
+        this.exhaustions.increment();
+    }
+
+    void recordMiss() {
+        this.misses.increment();
+    }
+
+    void recordCasRetry() {
+        this.casRetries.increment();
+    }
+
+    @NotNull PoolStats snapshot(final int size, final int inUse) {
+        return new PoolStats(size,
+                inUse,
+                this.highWaterMark.get(),
+                this.hits.sum(),
+                this.supplierFallbacks.sum(),
+                this.exhaustions.sum(),
+                this.misses.sum(),
+                this.casRetries.sum(),
+                true);
+    }
+
+}
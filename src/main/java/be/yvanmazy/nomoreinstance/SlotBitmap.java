@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+/**
+ * Slot bitmap where a set bit marks a used slot. Slots are zero-based and always acquired lowest first.
+ */
+sealed interface SlotBitmap permits HierarchicalBitmap, AtomicHierarchicalBitmap {
+
+    /**
+     * @return the acquired slot, or {@code -1} if every slot is in use
+     */
+    int acquire();
+
+    /**
+     * Mark a specific slot as used.
+     *
+     * @return {@code false} if the slot was already used
+     */
+    boolean trySet(final int slot);
+
+    /**
+     * Acquire free slots until {@code slots} is filled from {@code from} (inclusive) to {@code to} (exclusive), claiming
+     * the free bits of a word all at once. Every slot is stored with {@code base} added.
+     *
+     * @return the position after the last stored slot, lower than {@code to} if every slot is in use
+     */
+    int acquire(final int[] slots, final int from, final int to, final int base);
+
+    void release(final int slot);
+
+    /**
+     * Release the slots stored from {@code from} (inclusive) to {@code to} (exclusive), minus {@code base}. Consecutive
+     * slots of the same word are cleared at once.
+     */
+    void release(final int[] slots, final int from, final int to, final int base);
+
+    boolean isSet(final int slot);
+
+    int cardinality();
+
+    void clear();
+
+    int size();
+
+}
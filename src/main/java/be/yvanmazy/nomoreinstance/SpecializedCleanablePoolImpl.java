@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Template of the classes defined by {@link PoolSpecializer}: every specialized pool is a hidden copy of this class,
+ * whose class data holds the supplier, the cleaner and the release cleaner. They are read into static final fields,
+ * which the JIT treats as constants. They are passed to the static helpers of {@link AbstractPool}, so once these are
+ * inlined every copy calls its own hooks directly.
+ * <p>
+ * The copies must not refer to other classes of their nest, this class must not contain lambdas or nested classes.
+ */
+final class SpecializedCleanablePoolImpl<T> extends DelegatingCleanablePoolImpl<T> {
+
+    private static final Object[] HOOKS = hooks();
+    private static final Supplier<?> SUPPLIER = (Supplier<?>) HOOKS[0];
+    @SuppressWarnings("rawtypes")
+    private static final UnaryOperator CLEANER = (UnaryOperator) HOOKS[1];
+    @SuppressWarnings("rawtypes")
+    private static final UnaryOperator RELEASE_CLEANER = (UnaryOperator) HOOKS[2];
+
+    SpecializedCleanablePoolImpl(final @NotNull CleanablePoolImpl<T> delegate) {
+        super(delegate);
+    }
+
+    private static Object[] hooks() {
+        try {
+            final Object[] hooks = MethodHandles.classData(MethodHandles.lookup(), "_", Object[].class);
+            // The template itself has no class data, it is never instantiated
+            return hooks != null ? hooks : new Object[3];
+        } catch (final IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected @NotNull T getAt(final int index) {
+        return AbstractPool.getAt(this, index, (Supplier<T>) SUPPLIER, (UnaryOperator<T>) CLEANER);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void cleanReleased(final int index) {
+        AbstractPool.cleanReleased(this, index, (UnaryOperator<T>) RELEASE_CLEANER);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected @NotNull T getFromSupplier() {
+        return AbstractPool.getFromSupplier(this, (Supplier<T>) SUPPLIER);
+    }
+
+}
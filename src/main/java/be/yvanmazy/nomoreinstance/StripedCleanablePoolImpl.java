@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Split the pool into independent lock-free stripes. A thread always starts from its home stripe and steals from the
+ * other stripes only when its own one is full.
+ */
+final class StripedCleanablePoolImpl<T> extends CleanablePoolImpl<T> {
+
+    private final AtomicHierarchicalBitmap[] stripes;
+    private final int stripeSize;
+    private final int mask;
+
+    StripedCleanablePoolImpl(final @NotNull T[] pool) {
+        super(pool);
+        final int count = Stripes.count(pool.length);
+        this.stripes = new AtomicHierarchicalBitmap[count];
+        this.stripeSize = (pool.length + count - 1) / count;
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            final int start = Math.min(pool.length, i * this.stripeSize);
+            final int end = Math.min(pool.length, start + this.stripeSize);
+            this.stripes[i] = new AtomicHierarchicalBitmap(end - start);
+        }
+    }
+
+    @Override
+    int acquireSlot() {
+        final AtomicHierarchicalBitmap[] stripes = this.stripes;
+        final int home = Stripes.home(this.mask);
+        for (int i = 0; i < stripes.length; i++) {
+            final int stripe = (home + i) & this.mask;
+            final int slot = stripes[stripe].acquire();
+            if (slot >= 0) {
+                return stripe * this.stripeSize + slot;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    void releaseSlot(final int slot) {
+        final int stripe = slot / this.stripeSize;
+        this.stripes[stripe].release(slot - stripe * this.stripeSize);
+    }
+
+    @Override
+    boolean trySetSlot(final int slot) {
+        final int stripe = slot / this.stripeSize;
+        return this.stripes[stripe].trySet(slot - stripe * this.stripeSize);
+    }
+
+    @Override
+    int acquireSlots(final int[] indices, final int from, final int to) {
+        final AtomicHierarchicalBitmap[] stripes = this.stripes;
+        final int home = Stripes.home(this.mask);
+        int position = from;
+        for (int i = 0; i < stripes.length && position < to; i++) {
+            final int stripe = (home + i) & this.mask;
+            position = stripes[stripe].acquire(indices, position, to, stripe * this.stripeSize + 1);
+        }
+        return position;
+    }
+
+    @Override
+    void releaseSlots(final int[] indices, final int from, final int to) {
+        int position = from;
+        while (position < to) {
+            final int stripe = (indices[position] - 1) / this.stripeSize;
+            int end = position + 1;
+            while (end < to && (indices[end] - 1) / this.stripeSize == stripe) {
+                end++;
+            }
+            this.stripes[stripe].release(indices, position, end, stripe * this.stripeSize + 1);
+            position = end;
+        }
+    }
+
+    @Override
+    public void cleanAll() {
+        this.beforeCleanAll();
+        for (final AtomicHierarchicalBitmap stripe : this.stripes) {
+            stripe.clear();
+        }
+        this.afterCleanAll();
+    }
+
+    @Override
+    int inUse() {
+        int inUse = 0;
+        for (final AtomicHierarchicalBitmap stripe : this.stripes) {
+            inUse += stripe.cardinality();
+        }
+        return inUse;
+    }
+
+    @Override
+    void setStats(final PoolStatsRecorder stats) {
+        super.setStats(stats);
+        for (final AtomicHierarchicalBitmap stripe : this.stripes) {
+            stripe.setStats(stats);
+        }
+    }
+
+    @Override
+    public @NotNull PoolConcurrency poolConcurrency() {
+        return PoolConcurrency.STRIPED;
+    }
+
+}
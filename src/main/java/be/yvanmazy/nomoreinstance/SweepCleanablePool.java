@@ -24,8 +24,21 @@
 
 package be.yvanmazy.nomoreinstance;
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.List;
+
 public interface SweepCleanablePool<T> extends Pool<T> {
 
+    /**
+     * Get {@code count} objects at once. The objects are claimed as a single range of the pool, and the supplier is used
+     * for the part of the range that does not fit anymore.
+     *
+     * @return an unmodifiable view of the objects, valid until the next {@link #cleanAll()}
+     */
+    @NotNull List<T> getRange(final @Range(from = 0L, to = Integer.MAX_VALUE) int count);
+
     void cleanAll();
 
 }
\ No newline at end of file
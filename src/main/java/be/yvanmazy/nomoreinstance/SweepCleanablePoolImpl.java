@@ -26,7 +26,11 @@ package be.yvanmazy.nomoreinstance;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 sealed class SweepCleanablePoolImpl<T> extends AbstractPool<T> implements SweepCleanablePool<T> permits SweepCleanablePoolImpl.Synchronized {
 
@@ -44,11 +48,26 @@ sealed class SweepCleanablePoolImpl<T> extends AbstractPool<T> implements SweepC
         return this.getAt(this.index++);
     }
 
+    @Override
+    public @NotNull List<T> getRange(final int count) {
+        checkCount(count);
+        final int start = this.index;
+        final int claimed = Math.max(0, Math.min(count, this.pool.length - start));
+        this.index = start + claimed;
+        return range(this, start, claimed, count);
+    }
+
     @Override
     public void cleanAll() {
+        cleanUsed(this, 0, this.inUse());
         this.index = 0;
     }
 
+    @Override
+    int inUse() {
+        return Math.min(this.index, this.pool.length);
+    }
+
     @Override
     public @NotNull PoolConcurrency poolConcurrency() {
         return PoolConcurrency.NOT_CONCURRENT;
@@ -65,6 +84,21 @@ sealed class SweepCleanablePoolImpl<T> extends AbstractPool<T> implements SweepC
             return super.get();
         }
 
+        @Override
+        public synchronized @NotNull List<T> getRange(final int count) {
+            return super.getRange(count);
+        }
+
+        @Override
+        public synchronized void cleanAll() {
+            super.cleanAll();
+        }
+
+        @Override
+        synchronized int inUse() {
+            return super.inUse();
+        }
+
         @Override
         public @NotNull PoolConcurrency poolConcurrency() {
             return PoolConcurrency.SYNCHRONIZED;
@@ -74,24 +108,50 @@ sealed class SweepCleanablePoolImpl<T> extends AbstractPool<T> implements SweepC
 
     static final class LockFree<T> extends AbstractPool<T> implements SweepCleanablePool<T> {
 
-        private final AtomicInteger index = new AtomicInteger();
+        /**
+         * Number of ints in 128 bytes, kept on each side of a padded index.
+         */
+        private static final int PADDING = 32;
+
+        // The index is a cell of an array, padded on both sides to have its own cache lines in the padded layout
+        private final AtomicIntegerArray cells;
+        private final int cell;
 
-        LockFree(final @NotNull T[] pool) {
+        LockFree(final @NotNull T[] pool, final boolean padded) {
             super(pool);
+            this.cell = padded ? PADDING : 0;
+            this.cells = new AtomicIntegerArray(this.cell * 2 + 1);
         }
 
         @Override
         public @NotNull T get() {
-            int index = this.index.get();
-            if (index >= this.pool.length || (index = this.index.getAndIncrement()) >= this.pool.length) {
+            int index = this.cells.get(this.cell);
+            if (index >= this.pool.length || (index = this.cells.getAndIncrement(this.cell)) >= this.pool.length) {
                 return this.getFromSupplier();
             }
             return this.getAt(index);
         }
 
+        @Override
+        public @NotNull List<T> getRange(final int count) {
+            checkCount(count);
+            final int length = this.pool.length;
+            int start = this.cells.get(this.cell);
+            if (start < length && count > 0) {
+                start = this.cells.getAndAdd(this.cell, count);
+            }
+            return range(this, start, Math.max(0, Math.min(count, length - start)), count);
+        }
+
         @Override
         public void cleanAll() {
-            this.index.set(0);
+            cleanUsed(this, 0, this.inUse());
+            this.cells.set(this.cell, 0);
+        }
+
+        @Override
+        int inUse() {
+            return Math.min(this.cells.get(this.cell), this.pool.length);
         }
 
         @Override
@@ -101,4 +161,177 @@ sealed class SweepCleanablePoolImpl<T> extends AbstractPool<T> implements SweepC
 
     }
 
-}
\ No newline at end of file
+    static final class Striped<T> extends AbstractPool<T> implements SweepCleanablePool<T> {
+
+        private final AtomicInteger[] indexes;
+        private final int[] starts;
+        private final int[] ends;
+        private final int mask;
+
+        Striped(final @NotNull T[] pool) {
+            super(pool);
+            final int count = Stripes.count(pool.length);
+            final int stripeSize = (pool.length + count - 1) / count;
+            this.indexes = new AtomicInteger[count];
+            this.starts = new int[count];
+            this.ends = new int[count];
+            this.mask = count - 1;
+            for (int i = 0; i < count; i++) {
+                final int start = Math.min(pool.length, i * stripeSize);
+                this.indexes[i] = new AtomicInteger(start);
+                this.starts[i] = start;
+                this.ends[i] = Math.min(pool.length, start + stripeSize);
+            }
+        }
+
+        @Override
+        public @NotNull T get() {
+            final int home = Stripes.home(this.mask);
+            for (int i = 0; i < this.indexes.length; i++) {
+                final int stripe = (home + i) & this.mask;
+                final AtomicInteger index = this.indexes[stripe];
+                final int end = this.ends[stripe];
+                int current = index.get();
+                if (current < end && (current = index.getAndIncrement()) < end) {
+                    return this.getAt(current);
+                }
+            }
+            return this.getFromSupplier();
+        }
+
+        /**
+         * The home stripe gives a single range. When it is too short, the missing objects are taken one by one from the
+         * other stripes, then from the supplier.
+         */
+        @Override
+        public @NotNull List<T> getRange(final int count) {
+            checkCount(count);
+            final int home = Stripes.home(this.mask);
+            final AtomicInteger homeIndex = this.indexes[home];
+            final int homeEnd = this.ends[home];
+            int start = homeIndex.get();
+            if (start < homeEnd && count > 0) {
+                start = homeIndex.getAndAdd(count);
+            }
+            final int claimed = Math.max(0, Math.min(count, homeEnd - start));
+            if (claimed == count) {
+                return range(this, start, claimed, count);
+            }
+            for (int i = 0; i < claimed; i++) {
+                this.getAt(start + i);
+            }
+            final Object[] extra = new Object[count - claimed];
+            int filled = 0;
+            for (int i = 1; i < this.indexes.length && filled < extra.length; i++) {
+                final int stripe = (home + i) & this.mask;
+                final AtomicInteger index = this.indexes[stripe];
+                final int end = this.ends[stripe];
+                int current;
+                while (filled < extra.length && (current = index.get()) < end
+                        && (current = index.getAndIncrement()) < end) {
+                    extra[filled++] = this.getAt(current);
+                }
+            }
+            while (filled < extra.length) {
+                extra[filled++] = this.getFromSupplier();
+            }
+            return new SweepRange<>(this.pool, start, claimed, extra);
+        }
+
+        @Override
+        public void cleanAll() {
+            for (int i = 0; i < this.indexes.length; i++) {
+                cleanUsed(this, this.starts[i], Math.min(this.indexes[i].get(), this.ends[i]));
+                this.indexes[i].set(this.starts[i]);
+            }
+        }
+
+        @Override
+        int inUse() {
+            int inUse = 0;
+            for (int i = 0; i < this.indexes.length; i++) {
+                inUse += Math.min(this.indexes[i].get(), this.ends[i]) - this.starts[i];
+            }
+            return inUse;
+        }
+
+        @Override
+        public @NotNull PoolConcurrency poolConcurrency() {
+            return PoolConcurrency.STRIPED;
+        }
+
+    }
+
+    /**
+     * Apply the release cleaner to the objects handed out since the last {@link #cleanAll()}, which are given back.
+     */
+    static void cleanUsed(final @NotNull AbstractPool<?> owner, final int from, final int to) {
+        owner.recordRelease(to - from);
+        if (owner.releaseCleaner != null) {
+            for (int i = from; i < to; i++) {
+                owner.cleanReleased(i);
+            }
+        }
+    }
+
+    static void checkCount(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+    }
+
+    /**
+     * Clean the {@code claimed} objects of the range and ask the supplier for the remaining ones.
+     */
+    static <T> @NotNull List<T> range(final @NotNull AbstractPool<T> owner, final int start, final int claimed,
+                                      final int count) {
+        for (int i = 0; i < claimed; i++) {
+            owner.getAt(start + i);
+        }
+        if (claimed == count) {
+            return new SweepRange<>(owner.pool, start, claimed, null);
+        }
+        final Object[] extra = new Object[count - claimed];
+        for (int i = 0; i < extra.length; i++) {
+            extra[i] = owner.getFromSupplier();
+        }
+        return new SweepRange<>(owner.pool, start, claimed, extra);
+    }
+
+    /**
+     * View of a range of the pool, followed by the objects that did not fit in it.
+     */
+    private static final class SweepRange<T> extends AbstractList<T> implements RandomAccess {
+
+        private final T[] pool;
+        private final int start;
+        private final int claimed;
+        private final Object[] extra;
+
+        private SweepRange(final @NotNull T[] pool, final int start, final int claimed, final Object[] extra) {
+            this.pool = pool;
+            this.start = start;
+            this.claimed = claimed;
+            this.extra = extra;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T get(final int index) {
+            if (index < 0 || index >= this.size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            if (index < this.claimed) {
+                return this.pool[this.start + index];
+            }
+            return (T) this.extra[index - this.claimed];
+        }
+
+        @Override
+        public int size() {
+            return this.extra == null ? this.claimed : this.claimed + this.extra.length;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FIFO queue of acquisitions waiting for a slot. A released slot is handed to the oldest waiter without going back to
+ * the bitmap. Checking the queue is a single read when nobody is waiting.
+ */
+final class WaitQueue {
+
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    boolean hasWaiters() {
+        return !this.waiters.isEmpty();
+    }
+
+    void add(final @NotNull Waiter waiter) {
+        this.waiters.add(waiter);
+    }
+
+    void remove(final @NotNull Waiter waiter) {
+        this.waiters.remove(waiter);
+    }
+
+    /**
+     * Hand a slot to the oldest waiter still waiting.
+     *
+     * @return {@code false} if there was no waiter, the slot still belongs to the caller
+     */
+    boolean offer(final int slot) {
+        Waiter waiter;
+        while ((waiter = this.waiters.poll()) != null) {
+            if (waiter.complete(slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    abstract static class Waiter {
+
+        private static final int WAITING = -1;
+        private static final int CANCELLED = -2;
+
+        private final AtomicInteger slot = new AtomicInteger(WAITING);
+
+        /**
+         * @return the slot given to this waiter, or a negative value if it has none yet
+         */
+        final int slot() {
+            return this.slot.get();
+        }
+
+        /**
+         * @return {@code false} if a slot was given to this waiter in the meantime
+         */
+        final boolean cancel() {
+            return this.slot.compareAndSet(WAITING, CANCELLED);
+        }
+
+        private boolean complete(final int slot) {
+            if (this.slot.compareAndSet(WAITING, slot)) {
+                this.onSlot(slot);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Called by the releasing thread once the slot belongs to this waiter.
+         */
+        abstract void onSlot(final int slot);
+
+    }
+
+    static final class ParkingWaiter extends Waiter {
+
+        private final Thread thread;
+
+        ParkingWaiter(final @NotNull Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        void onSlot(final int slot) {
+            LockSupport.unpark(this.thread);
+        }
+
+    }
+
+}
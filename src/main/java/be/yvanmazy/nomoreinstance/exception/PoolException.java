@@ -24,7 +24,7 @@
 
 package be.yvanmazy.nomoreinstance.exception;
 
-public sealed class PoolException extends RuntimeException permits NoMoreObjectException, NullObjectProvidedException {
+public sealed class PoolException extends RuntimeException permits AcquireTimeoutException, NoMoreObjectException, NullObjectProvidedException {
 
     public PoolException(final String message) {
         super(message);
@@ -69,6 +69,18 @@ abstract class AbstractPoolTest<P extends Pool<?>> extends ConcurrencyPoolTest<P
         assertEquals(ONE_VECTOR, pool.get());
     }
 
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testEverySlotIsServedBeforeSupplier(final PoolConcurrency concurrency) {
+        final Pool<Vector> pool =
+                this.build(Pool.<Vector>newBuilder().concurrency(concurrency).supplier(() -> new Vector(1, 1, 1)), filledVectors(200));
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(ZERO_VECTOR, pool.get());
+        }
+        assertEquals(ONE_VECTOR, pool.get());
+    }
+
     protected abstract <T> Pool<T> build(final Pool.Builder<T> builder, final T[] poolArray);
 
 }
\ No newline at end of file
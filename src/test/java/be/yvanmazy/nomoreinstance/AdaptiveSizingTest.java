@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveSizingTest {
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "STRIPED", mode = EnumSource.Mode.EXCLUDE)
+    void testAdaptFollowsTheBusiestWindows(final PoolConcurrency concurrency) {
+        final ElasticCleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .supplier(Vector::new)
+                .adaptiveSizing(2, 1.0D)
+                .buildElastic(Vector.class, 4, 64);
+        assertEquals(4, pool.recommendedSize());
+
+        acquireAndRelease(pool, 10);
+        assertEquals(12, pool.size());
+        assertEquals(11, pool.adapt());
+        assertEquals(10, pool.recommendedSize());
+
+        acquireAndRelease(pool, 2);
+        assertEquals(10, pool.adapt());
+        acquireAndRelease(pool, 2);
+        assertEquals(10, pool.recommendedSize());
+        assertEquals(6, pool.adapt());
+        assertEquals(2, pool.recommendedSize());
+        assertEquals(4, pool.adapt());
+        assertEquals(4, pool.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "STRIPED", mode = EnumSource.Mode.EXCLUDE)
+    void testDemandIsTheInUsePeak(final PoolConcurrency concurrency) {
+        final ElasticCleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .supplier(Vector::new)
+                .adaptiveSizing(1, 1.0D)
+                .buildElastic(Vector.class, 8, 8);
+        final List<Cleanable<Vector>> cleanables = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            cleanables.add(pool.get());
+        }
+        cleanables.subList(0, 7).forEach(Cleanable::close);
+        assertEquals(8, pool.adapt());
+
+        // Only the last slot and one of the lowest slots are used at the same time
+        acquireAndRelease(pool, 1);
+        acquireAndRelease(pool, 1);
+        pool.adapt();
+        assertEquals(2, pool.recommendedSize());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "STRIPED", mode = EnumSource.Mode.EXCLUDE)
+    void testCleanAllIsNotDemand(final PoolConcurrency concurrency) {
+        final ElasticCleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .supplier(Vector::new)
+                .cleaner(Vector::reset)
+                .cleanOnRelease()
+                .adaptiveSizing(1, 1.0D)
+                .buildElastic(Vector.class, 8, 8);
+        acquireAndRelease(pool, 2);
+        pool.get(); // Still in use when every slot is released
+        pool.cleanAll();
+        assertEquals(5, pool.adapt());
+        assertEquals(2, pool.recommendedSize());
+    }
+
+    @Test
+    void testOverflowCountsAsDemand() {
+        final ElasticCleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .supplier(Vector::new)
+                .adaptiveSizing(1, 0.5D)
+                .buildElastic(Vector.class, 2, 8);
+        final List<Cleanable<Vector>> cleanables = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            cleanables.add(pool.get());
+        }
+        assertEquals(8, pool.size());
+        assertEquals(8, pool.adapt());
+        assertEquals(8, pool.recommendedSize());
+
+        cleanables.forEach(Cleanable::close);
+        assertEquals(8, pool.adapt());
+        assertEquals(4, pool.adapt());
+        assertEquals(0, pool.recommendedSize());
+    }
+
+    @Test
+    void testAdaptWithoutAdaptiveSizingKeepsTheSize() {
+        final ElasticCleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().supplier(Vector::new).buildElastic(Vector.class, 4, 8);
+        acquireAndRelease(pool, 8);
+        assertEquals(8, pool.adapt());
+        assertEquals(8, pool.recommendedSize());
+
+        final Pool.Builder<Vector> builder = Pool.<Vector>newBuilder().supplier(Vector::new).adaptiveSizing(1, 1.0D);
+        assertThrows(IllegalStateException.class, () -> builder.build(Vector.class, 4));
+        assertThrows(IllegalArgumentException.class, () -> builder.adaptiveSizing(1, 0.0D));
+        assertDoesNotThrow(() -> builder.withoutAdaptiveSizing().build(Vector.class, 4));
+    }
+
+    private static void acquireAndRelease(final CleanablePool<Vector> pool, final int count) {
+        final List<Cleanable<Vector>> cleanables = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cleanables.add(pool.get());
+        }
+        cleanables.forEach(Cleanable::close);
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaPoolTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testArenaBumpsThroughItsChunks(final PoolConcurrency concurrency) {
+        final Vector[] array = filledVectors(6);
+        final ArenaPool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).supplier(Vector::new).buildArena(array, 2);
+        assertEquals(2, pool.chunkSize());
+
+        try (final Arena<Vector> arena = pool.openArena()) {
+            assertSame(array[0], arena.get());
+            assertSame(array[1], arena.get());
+            assertEquals(2, pool.stats().inUse());
+            try (final Arena<Vector> other = pool.openArena()) {
+                assertSame(array[2], other.get());
+            }
+            assertSame(array[2], arena.get());
+            assertSame(array[3], arena.get());
+            assertSame(array[4], arena.get());
+            assertSame(array[5], arena.get());
+            assertEquals(6, pool.stats().inUse());
+
+            final Arena<Vector> exhausted = pool.openArena();
+            final Vector vector = exhausted.get();
+            for (final Vector pooled : array) {
+                assertNotSame(pooled, vector);
+            }
+            exhausted.close();
+        }
+        assertEquals(0, pool.stats().inUse());
+
+        try (final Arena<Vector> arena = pool.openArena()) {
+            assertSame(array[0], arena.get());
+        }
+    }
+
+    @Test
+    void testCloseResetsAndCleansUsedObjects() {
+        final Vector[] array = filledVectors(4);
+        final ArenaPool<Vector> pool = Pool.<Vector>newBuilder()
+                .cleaner(Vector::reset)
+                .cleanOnRelease()
+                .buildArena(array, 4);
+        final Arena<Vector> arena = pool.openArena();
+        arena.get().set(1, 1, 1);
+        array[1].set(2, 2, 2);
+        arena.close();
+        arena.close();
+
+        assertEquals(new Vector(), array[0]);
+        assertEquals(new Vector(2, 2, 2), array[1]);
+        assertThrows(IllegalStateException.class, arena::get);
+        assertThrows(IllegalArgumentException.class, () -> Pool.<Vector>newBuilder().buildArena(array, 3));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "NOT_CONCURRENT", mode = EnumSource.Mode.EXCLUDE)
+    void testLateCloseDoesNotReleaseTheNextOwner(final PoolConcurrency concurrency) throws InterruptedException {
+        final ArenaPool<Vector> pool = Pool.<Vector>newBuilder().concurrency(concurrency).buildArena(filledVectors(2), 2);
+        final Arena<Vector> first = pool.openArena();
+        first.close();
+
+        final AtomicReference<Arena<Vector>> reopened = new AtomicReference<>();
+        final Thread other = new Thread(() -> reopened.set(pool.openArena()));
+        other.start();
+        other.join();
+        assertSame(first, reopened.get());
+
+        first.close();
+        assertEquals(2, pool.stats().inUse());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "NOT_CONCURRENT", mode = EnumSource.Mode.EXCLUDE)
+    void testConcurrentArenasNeverShareObjects(final PoolConcurrency concurrency) throws InterruptedException {
+        final ArenaPool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .supplier(Vector::new)
+                .buildArena(Vector.class, 8, 16);
+        final Thread[] threads = new Thread[4];
+        final CountDownLatch done = new CountDownLatch(threads.length);
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                for (int round = 0; round < 1_000; round++) {
+                    try (final Arena<Vector> arena = pool.openArena()) {
+                        final Vector[] vectors = new Vector[12];
+                        for (int i = 0; i < vectors.length; i++) {
+                            vectors[i] = arena.get();
+                            vectors[i].set(id, round, i);
+                        }
+                        for (int i = 0; i < vectors.length; i++) {
+                            assertEquals(new Vector(id, round, i), vectors[i]);
+                        }
+                    }
+                }
+                done.countDown();
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0L, done.getCount());
+        assertEquals(0, pool.stats().inUse());
+    }
+
+}
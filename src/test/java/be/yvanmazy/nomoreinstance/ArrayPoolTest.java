@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayPoolTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testRentReuseReleasedArrays(final PoolConcurrency concurrency) {
+        final ArrayPool<byte[]> pool = ArrayPool.bytes().concurrency(concurrency).build();
+
+        final byte[] first = pool.rent(100);
+        assertEquals(128, first.length);
+        assertEquals(16, pool.rent(0).length);
+        assertEquals(16, pool.rent(16).length);
+        assertEquals(32, pool.rent(17).length);
+
+        pool.release(first);
+        assertSame(first, pool.rent(65));
+        assertNotSame(first, pool.rent(128));
+    }
+
+    @Test
+    void testCapacityLimitEachClass() {
+        final ArrayPool<int[]> pool = ArrayPool.ints().capacity(2).build();
+        final int[] first = pool.rent(32);
+        final int[] second = pool.rent(32);
+        final int[] third = pool.rent(32);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        final int[] a = pool.rent(32);
+        final int[] b = pool.rent(32);
+        final int[] c = pool.rent(32);
+        assertTrue(a == first || a == second);
+        assertTrue(b == first || b == second);
+        assertNotSame(third, c);
+    }
+
+    @Test
+    void testArraysOutsideSizeClassesAreNotPooled() {
+        final ArrayPool<long[]> pool = ArrayPool.longs().maxLength(1000).build();
+        assertEquals(1024, pool.maxLength());
+        assertEquals(2000, pool.rent(2000).length);
+
+        final long[] odd = new long[100];
+        pool.release(odd);
+        final long[] big = new long[2048];
+        pool.release(big);
+        assertNotSame(odd, pool.rent(100));
+        assertNotSame(big, pool.rent(2048));
+    }
+
+    @Test
+    void testZeroOnRelease() {
+        final ArrayPool<char[]> pool = ArrayPool.chars().zeroOnRelease().build();
+        final char[] array = pool.rent(16);
+        array[3] = 'a';
+        pool.release(array);
+        assertArrayEquals(new char[16], pool.rent(16));
+
+        final ArrayPool<double[]> dirtyPool = ArrayPool.doubles().build();
+        final double[] dirty = dirtyPool.rent(16);
+        dirty[0] = 1D;
+        dirtyPool.release(dirty);
+        assertEquals(1D, dirtyPool.rent(16)[0]);
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.nomoreinstance.exception.AcquireTimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingAcquireTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testAcquireTimeout(final PoolConcurrency concurrency) throws InterruptedException {
+        final CleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).supplier(Vector::new).build(filledVectors(2));
+        pool.get();
+        pool.get();
+
+        assertThrows(AcquireTimeoutException.class, () -> pool.acquire(Duration.ofMillis(20L)));
+        assertEquals(2, pool.stats().inUse());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "NOT_CONCURRENT", mode = EnumSource.Mode.EXCLUDE)
+    void testReleaseWakeUpWaiter(final PoolConcurrency concurrency) throws InterruptedException {
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder().concurrency(concurrency).build(filledVectors(1));
+        final Cleanable<Vector> first = pool.acquire(Duration.ZERO);
+
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waiter = new Thread(() -> {
+            try (final Cleanable<Vector> cleanable = pool.acquire(Duration.ofSeconds(10L))) {
+                assertSame(first.value(), cleanable.value());
+                acquired.countDown();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        Thread.sleep(50L);
+        assertEquals(1L, acquired.getCount());
+
+        first.close();
+        assertTrue(acquired.await(10L, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(0, pool.stats().inUse());
+    }
+
+    @Test
+    void testFairAcquireServeWaitersInOrder() throws InterruptedException {
+        final CleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(PoolConcurrency.LOCK_FREE).fairAcquire(true).build(filledVectors(1));
+        final Cleanable<Vector> held = pool.acquire(Duration.ZERO);
+
+        final List<Integer> order = new CopyOnWriteArrayList<>();
+        final Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            final int id = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    final Cleanable<Vector> cleanable = pool.acquireInterruptibly();
+                    order.add(id);
+                    cleanable.close();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+            // Let each thread enqueue before starting the next one
+            while (threads[i].getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+        }
+
+        held.close();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of(0, 1, 2), order);
+    }
+
+    @Test
+    void testInterruptCancelWaiting() throws InterruptedException {
+        final CleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(PoolConcurrency.SYNCHRONIZED).build(filledVectors(1));
+        final Cleanable<Vector> held = pool.acquire(Duration.ZERO);
+
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Thread waiter = new Thread(() -> {
+            try {
+                pool.acquireInterruptibly();
+            } catch (final InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        waiter.start();
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        waiter.interrupt();
+        assertTrue(interrupted.await(10L, TimeUnit.SECONDS));
+
+        held.close();
+        assertEquals(0, pool.stats().inUse());
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testAcquireAsyncCompleteOnRelease(final PoolConcurrency concurrency) {
+        final CleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).supplier(Vector::new).build(filledVectors(1));
+        final CompletableFuture<Cleanable<Vector>> first = pool.acquireAsync();
+        assertTrue(first.isDone());
+
+        final CompletableFuture<Cleanable<Vector>> second = pool.acquireAsync();
+        assertFalse(second.isDone());
+        final Vector value = first.join().value();
+        first.join().close();
+        assertTrue(second.isDone());
+        assertSame(value, second.join().value());
+        assertEquals(1, pool.stats().inUse());
+
+        second.join().close();
+        assertEquals(0, pool.stats().inUse());
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testCancelledAcquireAsyncDoNotKeepSlot(final PoolConcurrency concurrency) {
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder().concurrency(concurrency).build(filledVectors(1));
+        final Cleanable<Vector> held = pool.acquireAsync().join();
+
+        final CompletableFuture<Cleanable<Vector>> cancelled = pool.acquireAsync();
+        final CompletableFuture<Cleanable<Vector>> waiting = pool.acquireAsync();
+        assertTrue(cancelled.cancel(false));
+
+        held.close();
+        assertTrue(waiting.isDone());
+        waiting.join().close();
+        assertEquals(0, pool.stats().inUse());
+    }
+
+}
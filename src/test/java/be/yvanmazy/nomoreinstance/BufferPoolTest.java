@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferPoolTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testLeaseChunksOfSmallestClass(final PoolConcurrency concurrency) {
+        final BufferPool pool = BufferPool.newBuilder().concurrency(concurrency).sizeClass(1024, 2).sizeClass(256, 4).build();
+        assertEquals(1024, pool.maxChunkSize());
+
+        try (final Cleanable<ByteBuffer> small = pool.lease(100); final Cleanable<ByteBuffer> large = pool.lease(300)) {
+            assertInstanceOf(CleanableImpl.class, small);
+            assertTrue(small.value().isDirect());
+            assertEquals(256, small.value().capacity());
+            assertEquals(1024, large.value().capacity());
+        }
+
+        final Cleanable<ByteBuffer> fallback = pool.lease(2000);
+        assertInstanceOf(IgnoredCleanable.class, fallback);
+        assertEquals(2000, fallback.value().capacity());
+    }
+
+    @Test
+    void testChunksAreClearedAndShared() {
+        final BufferPool pool = BufferPool.newBuilder().sizeClass(64, 1).sizeClass(128, 1).build();
+
+        final Cleanable<ByteBuffer> first = pool.lease(64);
+        first.value().order(ByteOrder.LITTLE_ENDIAN).putInt(42).flip();
+        final Cleanable<ByteBuffer> overflow = pool.lease(64);
+        assertEquals(128, overflow.value().capacity());
+        first.close();
+
+        final Cleanable<ByteBuffer> second = pool.lease(10);
+        assertSame(first.value(), second.value());
+        assertEquals(0, second.value().position());
+        assertEquals(64, second.value().limit());
+        assertEquals(ByteOrder.BIG_ENDIAN, second.value().order());
+        assertEquals(42, second.value().order(ByteOrder.LITTLE_ENDIAN).getInt(0));
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testHandlesAreReusedAndResetOnRelease(final PoolConcurrency concurrency) {
+        final BufferPool pool = BufferPool.newBuilder().concurrency(concurrency).sizeClass(64, 1).build();
+
+        final Cleanable<ByteBuffer> first = pool.lease(64);
+        first.value().order(ByteOrder.LITTLE_ENDIAN).putLong(7L);
+        first.close();
+        assertEquals(0, first.value().position());
+        assertEquals(ByteOrder.BIG_ENDIAN, first.value().order());
+
+        try (final Cleanable<ByteBuffer> second = pool.lease(64)) {
+            assertSame(first, second);
+        }
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalStateException.class, () -> BufferPool.newBuilder().build());
+        assertThrows(IllegalArgumentException.class, () -> BufferPool.newBuilder().sizeClass(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> BufferPool.newBuilder().sizeClass(1 << 20, 1 << 12));
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CleanModeTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testCleanOnRelease(final PoolConcurrency concurrency) {
+        final CleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).cleaner(Vector::reset).cleanOnRelease().build(filledVectors(1));
+
+        final Cleanable<Vector> cleanable = pool.get();
+        cleanable.value().set(1, 2, 3);
+        assertEquals(new Vector(1, 2, 3), pool.valueAt(1));
+        cleanable.close();
+        assertEquals(new Vector(), pool.valueAt(1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testCleanAllCleansObjectsInUse(final PoolConcurrency concurrency) {
+        for (final Pool.Builder<Vector> builder : List.of(Pool.<Vector>newBuilder(), Pool.<Vector>newBuilder().specialize())) {
+            final CleanablePool<Vector> pool =
+                    builder.concurrency(concurrency).cleaner(Vector::reset).cleanOnRelease().build(filledVectors(2));
+
+            final Cleanable<Vector> used = pool.get();
+            used.value().set(1, 2, 3);
+            pool.cleanAll();
+            assertEquals(new Vector(), used.value());
+            assertEquals(0, pool.stats().inUse());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testSweepCleanOnCleanAll(final PoolConcurrency concurrency) {
+        final SweepCleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).cleaner(Vector::reset).cleanOnRelease().buildSweep(filledVectors(2));
+
+        final Vector vector = pool.get();
+        vector.set(1, 2, 3);
+        assertEquals(new Vector(1, 2, 3), vector);
+        pool.cleanAll();
+        assertEquals(new Vector(), vector);
+    }
+
+    @Test
+    void testAsyncCleanDelayRelease() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final Executor executor = tasks::add;
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(PoolConcurrency.LOCK_FREE)
+                .cleaner(Vector::reset)
+                .cleanAsync(executor)
+                .build(filledVectors(1));
+
+        final Cleanable<Vector> cleanable = pool.get();
+        cleanable.value().set(1, 2, 3);
+        cleanable.close();
+        assertEquals(1, tasks.size());
+        assertEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+
+        tasks.get(0).run();
+        final int index = pool.acquireIndex();
+        assertNotEquals(CleanablePool.NO_INDEX, index);
+        assertEquals(new Vector(), pool.valueAt(index));
+
+        // The task of a slot is reused by its next release
+        pool.release(index);
+        assertEquals(2, tasks.size());
+        assertSame(tasks.get(0), tasks.get(1));
+    }
+
+    @Test
+    void testAsyncCleanValidation() {
+        final Executor executor = Runnable::run;
+        assertThrows(IllegalStateException.class,
+                () -> Pool.<Vector>newBuilder().cleanAsync(executor).build(filledVectors(1)));
+        assertThrows(IllegalStateException.class, () -> Pool.<Vector>newBuilder()
+                .concurrency(PoolConcurrency.LOCK_FREE)
+                .cleanAsync(executor)
+                .buildSweep(filledVectors(1)));
+        assertThrows(IllegalStateException.class, () -> Pool.<Vector>newBuilder()
+                .concurrency(PoolConcurrency.LOCK_FREE)
+                .magazine(4, 2)
+                .cleanAsync(executor)
+                .build(filledVectors(1)));
+    }
+
+}
@@ -28,8 +28,13 @@ import be.yvanmazy.nomoreinstance.util.CleanablePoolWrapper;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class CleanablePoolTest extends AbstractPoolTest<CleanablePool<?>> {
 
@@ -54,6 +59,87 @@ class CleanablePoolTest extends AbstractPoolTest<CleanablePool<?>> {
         }
     }
 
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testAcquireIndexReturnSlotsWithoutSupplier(final PoolConcurrency concurrency) {
+        final CleanablePool<Vector> pool =
+                this.buildCleanable(Pool.<Vector>newBuilder().concurrency(concurrency).supplier(() -> new Vector(1, 1, 1)),
+                        filledVectors(2));
+
+        final int first = pool.acquireIndex();
+        final int second = pool.acquireIndex();
+        assertNotEquals(CleanablePool.NO_INDEX, first);
+        assertNotEquals(CleanablePool.NO_INDEX, second);
+        assertNotEquals(first, second);
+        assertEquals(ZERO_VECTOR, pool.valueAt(first));
+        assertEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+
+        pool.release(CleanablePool.NO_INDEX);
+        pool.release(first);
+        assertEquals(first, pool.acquireIndex());
+        assertSame(pool.valueAt(first), pool.valueAt(first));
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testBatchAcquireAndRelease(final PoolConcurrency concurrency) {
+        for (final int size : new int[] {40, 200}) {
+            final CleanablePool<Vector> pool =
+                    this.buildCleanable(Pool.<Vector>newBuilder().concurrency(concurrency).supplier(Vector::new),
+                            filledVectors(size));
+            final int half = size * 3 / 4;
+
+            final int[] indices = new int[size];
+            assertEquals(half, pool.acquireIndices(indices, half));
+            assertEquals(size - half, pool.acquireIndices(indices, half));
+            assertEquals(0, pool.acquireIndices(indices, 1));
+
+            final int[] sorted = Arrays.copyOf(indices, size - half);
+            pool.release(indices, size - half);
+            final Cleanable<?>[] cleanables = new Cleanable<?>[size];
+            assertEquals(size - half, pool.acquire(size, castCleanables(cleanables)));
+            final int[] reacquired = new int[size - half];
+            for (int i = 0; i < reacquired.length; i++) {
+                assertEquals(ZERO_VECTOR, cleanables[i].value());
+                cleanables[i].close();
+                reacquired[i] = pool.acquireIndex();
+            }
+            Arrays.sort(sorted);
+            Arrays.sort(reacquired);
+            assertArrayEquals(sorted, reacquired);
+
+            pool.release(reacquired, reacquired.length);
+            assertEquals(size - half, pool.acquireIndices(indices, size));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testBatchAcquireAboveOneWord(final PoolConcurrency concurrency) {
+        final CleanablePool<Vector> inner = Pool.<Vector>newBuilder().concurrency(concurrency).build(filledVectors(100));
+        final Cleanable<?>[] innerCleanables = new Cleanable<?>[3];
+        // A cleaner acquiring a batch from another pool on the same thread
+        final Pool.Builder<Vector> builder = Pool.<Vector>newBuilder().concurrency(concurrency).cleaner(vector -> {
+            inner.acquire(3, castCleanables(innerCleanables));
+            return vector;
+        });
+        final CleanablePool<Vector> pool = this.buildCleanable(builder, filledVectors(150));
+
+        final Cleanable<?>[] cleanables = new Cleanable<?>[200];
+        assertEquals(150, pool.acquire(200, castCleanables(cleanables)));
+        final Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 150; i++) {
+            values.add(cleanables[i].value());
+        }
+        assertEquals(150, values.size());
+        assertEquals(0, pool.acquire(1, castCleanables(cleanables)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Cleanable<T>[] castCleanables(final Cleanable<?>[] cleanables) {
+        return (Cleanable<T>[]) cleanables;
+    }
+
     @Override
     protected <T> Pool<T> build(final Pool.Builder<T> builder, final T[] poolArray) {
         return new CleanablePoolWrapper<>(this.buildCleanable(builder, poolArray));
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.concurrenttesting.ConcurrentTester;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElasticCleanablePoolTest {
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "STRIPED", mode = EnumSource.Mode.EXCLUDE)
+    void testOverflowIsAbsorbedUntilMaxSize(final PoolConcurrency concurrency) {
+        final AtomicInteger created = new AtomicInteger();
+        final ElasticCleanablePool<Vector> pool = Pool.<Vector>newBuilder().concurrency(concurrency).supplier(() -> {
+            created.incrementAndGet();
+            return new Vector();
+        }).buildElastic(filledVectors(2), 20);
+        created.set(0);
+
+        final List<Cleanable<Vector>> cleanables = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cleanables.add(pool.get());
+        }
+        assertEquals(20, pool.size());
+        assertEquals(18, created.get());
+        assertInstanceOf(IgnoredCleanable.class, pool.get());
+
+        cleanables.forEach(Cleanable::close);
+        for (int i = 0; i < 20; i++) {
+            pool.get();
+        }
+        assertEquals(19, created.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "STRIPED", mode = EnumSource.Mode.EXCLUDE)
+    void testResizeKeepSlotsInUse(final PoolConcurrency concurrency) {
+        final ElasticCleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).supplier(Vector::new).buildElastic(Vector.class, 10, 10);
+
+        final List<Cleanable<Vector>> cleanables = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            cleanables.add(pool.get());
+        }
+        pool.resize(4);
+        assertEquals(4, pool.size());
+        assertEquals(6, pool.stats().inUse());
+
+        cleanables.forEach(Cleanable::close);
+        assertEquals(0, pool.stats().inUse());
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+        }
+        assertEquals(4, pool.size());
+
+        // The fifth acquisition overflows and grows the pool again
+        assertNotEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+        assertEquals(10, pool.size());
+        for (int i = 0; i < 5; i++) {
+            assertNotEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+        }
+        assertEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+        assertEquals(10, pool.stats().inUse());
+    }
+
+    @Test
+    void testBuildRequireSupplier() {
+        final Pool.Builder<Vector> builder = Pool.newBuilder();
+
+        assertThrows(IllegalStateException.class, () -> builder.buildElastic(filledVectors(2), 4));
+        builder.supplier(Vector::new);
+        assertThrows(IllegalArgumentException.class, () -> builder.buildElastic(filledVectors(4), 2));
+        assertThrows(IllegalArgumentException.class, () -> builder.buildElastic(filledVectors(2), 4).resize(5));
+    }
+
+    @Test
+    void testConcurrentResize() {
+        final ElasticCleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(PoolConcurrency.LOCK_FREE).supplier(Vector::new).buildElastic(Vector.class, 64, 512);
+        final AtomicInteger owners = new AtomicInteger();
+
+        ConcurrentTester.run(barrier -> {
+            for (int i = 0; i < 10_000; i++) {
+                final int index = pool.acquireIndex();
+                if (index != CleanablePool.NO_INDEX) {
+                    final Vector vector = pool.valueAt(index);
+                    assertEquals(0, vector.getX(), "Slot shared by two threads");
+                    vector.setX(1);
+                    owners.incrementAndGet();
+                    vector.setX(0);
+                    pool.release(index);
+                }
+                if (i % 100 == 0) {
+                    pool.resize(64 + (i / 100) % 400);
+                }
+            }
+        }, c -> c.threads(8));
+
+        pool.resize(512);
+        assertEquals(0, pool.stats().inUse());
+        assertTrue(owners.get() > 0);
+    }
+
+}
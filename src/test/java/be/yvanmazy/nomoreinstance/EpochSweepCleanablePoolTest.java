@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpochSweepCleanablePoolTest {
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "STRIPED", mode = EnumSource.Mode.EXCLUDE)
+    void testEpochsUseTheirOwnRegion(final PoolConcurrency concurrency) {
+        final Vector[] array = filledVectors(4);
+        final EpochSweepCleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).supplier(Vector::new).buildEpochSweep(array, 2);
+        assertEquals(2, pool.epochs());
+        assertEquals(0L, pool.currentEpoch());
+
+        assertSame(array[0], pool.get());
+        assertSame(array[1], pool.get());
+        assertNotSame(array[2], pool.get());
+
+        assertEquals(1L, pool.advanceEpoch());
+        assertEquals(List.of(array[2], array[3]), pool.getRange(2));
+        assertThrows(IllegalStateException.class, pool::advanceEpoch);
+
+        pool.retire(0L);
+        pool.retire(0L);
+        assertEquals(2L, pool.advanceEpoch());
+        assertSame(array[0], pool.get());
+        assertEquals(3, pool.stats().inUse());
+        assertThrows(IllegalArgumentException.class, () -> pool.retire(2L));
+    }
+
+    @Test
+    void testCleanAllRetirePastEpochs() {
+        final EpochSweepCleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .supplier(Vector::new)
+                .cleaner(Vector::reset)
+                .cleanOnRelease()
+                .buildEpochSweep(Vector.class, 2, 3);
+        pool.get().set(1, 1, 1);
+        pool.advanceEpoch();
+        final Vector vector = pool.get();
+        vector.set(1, 1, 1);
+
+        pool.cleanAll();
+        assertEquals(0, pool.stats().inUse());
+        assertEquals(new Vector(), vector);
+        assertSame(vector, pool.get());
+        assertEquals(2L, pool.advanceEpoch());
+        assertEquals(3L, pool.advanceEpoch());
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalArgumentException.class, () -> Pool.<Vector>newBuilder().buildEpochSweep(filledVectors(4), 1));
+        assertThrows(IllegalArgumentException.class, () -> Pool.<Vector>newBuilder().buildEpochSweep(filledVectors(5), 2));
+        assertThrows(IllegalArgumentException.class, () -> Pool.<Vector>newBuilder().buildEpochSweep(Vector.class, 0, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> Pool.<Vector>newBuilder().concurrency(PoolConcurrency.STRIPED).buildEpochSweep(filledVectors(4), 2));
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalBitmapTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 63, 64, 65, 4095, 4096, 4097, 10_000, 270_000})
+    void testAcquireGiveLowestFreeSlot(final int size) {
+        final HierarchicalBitmap bitmap = new HierarchicalBitmap(size);
+        final AtomicHierarchicalBitmap atomicBitmap = new AtomicHierarchicalBitmap(size);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, bitmap.acquire());
+            assertEquals(i, atomicBitmap.acquire());
+        }
+        assertEquals(-1, bitmap.acquire());
+        assertEquals(-1, atomicBitmap.acquire());
+
+        for (int i = 0; i < size; i += 61) {
+            bitmap.release(i);
+            atomicBitmap.release(i);
+            assertFalse(bitmap.isSet(i));
+            assertFalse(atomicBitmap.isSet(i));
+        }
+        for (int i = 0; i < size; i += 61) {
+            assertEquals(i, bitmap.acquire());
+            assertEquals(i, atomicBitmap.acquire());
+        }
+        assertEquals(-1, bitmap.acquire());
+        assertEquals(-1, atomicBitmap.acquire());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 64, 65, 10_000})
+    void testClearReleaseEverySlot(final int size) {
+        final HierarchicalBitmap bitmap = new HierarchicalBitmap(size);
+        final AtomicHierarchicalBitmap atomicBitmap = new AtomicHierarchicalBitmap(size);
+
+        for (int i = 0; i < size; i++) {
+            bitmap.acquire();
+            atomicBitmap.acquire();
+        }
+        bitmap.clear();
+        atomicBitmap.clear();
+        for (int i = 0; i < size; i++) {
+            assertFalse(bitmap.isSet(i));
+            assertFalse(atomicBitmap.isSet(i));
+        }
+        assertEquals(0, bitmap.acquire());
+        assertEquals(0, atomicBitmap.acquire());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 63, 64, 65, 4097, 10_000})
+    void testBatchAcquireClaimLowestFreeSlots(final int size) {
+        final HierarchicalBitmap bitmap = new HierarchicalBitmap(size);
+        final AtomicHierarchicalBitmap atomicBitmap = new AtomicHierarchicalBitmap(size);
+        final int[] slots = new int[size + 1];
+        final int[] atomicSlots = new int[size + 1];
+
+        assertEquals(size, bitmap.acquire(slots, 0, size + 1, 1));
+        assertEquals(size, atomicBitmap.acquire(atomicSlots, 0, size + 1, 1));
+        for (int i = 0; i < size; i++) {
+            assertEquals(i + 1, slots[i]);
+            assertEquals(i + 1, atomicSlots[i]);
+        }
+        assertEquals(-1, bitmap.acquire());
+        assertEquals(-1, atomicBitmap.acquire());
+
+        bitmap.release(slots, 0, size / 2, 1);
+        atomicBitmap.release(atomicSlots, 0, size / 2, 1);
+        assertEquals(size - size / 2, bitmap.cardinality());
+        assertEquals(size - size / 2, atomicBitmap.cardinality());
+        assertEquals(size / 2, bitmap.acquire(slots, 0, size, 0));
+        assertEquals(size / 2, atomicBitmap.acquire(atomicSlots, 0, size, 0));
+        assertEquals(size, bitmap.cardinality());
+        assertEquals(size, atomicBitmap.cardinality());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 63, 64, 65, 4097, 10_000})
+    void testPaddedLayoutBehaveLikeCompactLayout(final int size) {
+        final AtomicHierarchicalBitmap compact = new AtomicHierarchicalBitmap(size);
+        final AtomicHierarchicalBitmap padded = new AtomicHierarchicalBitmap(size, true);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(compact.acquire(), padded.acquire());
+        }
+        assertEquals(-1, padded.acquire());
+        assertEquals(size, padded.cardinality());
+
+        for (int i = 0; i < size; i += 61) {
+            compact.release(i);
+            padded.release(i);
+            assertFalse(padded.isSet(i));
+        }
+        final int[] slots = new int[size];
+        final int[] paddedSlots = new int[size];
+        assertEquals(compact.acquire(slots, 0, size, 0), padded.acquire(paddedSlots, 0, size, 0));
+        assertArrayEquals(slots, paddedSlots);
+
+        padded.clear();
+        assertEquals(0, padded.cardinality());
+        assertEquals(size == 0 ? -1 : 0, padded.acquire());
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdleEvictionTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testEvictFreeSlotsOnly(final PoolConcurrency concurrency) {
+        final AtomicInteger created = new AtomicInteger();
+        final List<Vector> disposed = new ArrayList<>();
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder().concurrency(concurrency).supplier(() -> {
+            created.incrementAndGet();
+            return new Vector();
+        }).evictIdle(Duration.ZERO, disposed::add).build(Vector.class, 100);
+        assertEquals(100, created.get());
+
+        final Cleanable<Vector> used = pool.get();
+        assertEquals(99, pool.evictIdle());
+        assertEquals(99, disposed.size());
+        assertTrue(disposed.stream().noneMatch(vector -> vector == used.value()));
+        assertEquals(0, pool.evictIdle());
+
+        final Cleanable<Vector> recreated = pool.get();
+        assertEquals(101, created.get());
+        assertTrue(disposed.stream().noneMatch(vector -> vector == recreated.value()));
+        used.close();
+        recreated.close();
+        assertEquals(2, pool.evictIdle());
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testSlotReleasedBeforeSweepSurvives(final PoolConcurrency concurrency) throws InterruptedException {
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .supplier(Vector::new)
+                .evictIdle(Duration.ofMillis(50))
+                .build(Vector.class, 4);
+        assertEquals(0, pool.evictIdle());
+        Thread.sleep(80L);
+
+        final Cleanable<Vector> cleanable = pool.get();
+        final Vector vector = cleanable.value();
+        cleanable.close();
+        assertEquals(0, pool.evictIdle());
+        assertSame(vector, pool.get().value());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "NOT_CONCURRENT", mode = EnumSource.Mode.EXCLUDE)
+    void testEvictedSlotsOfMagazinePoolStayAvailable(final PoolConcurrency concurrency) throws InterruptedException {
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .supplier(Vector::new)
+                .magazine(8, 4)
+                .recordStats()
+                .evictIdle(Duration.ZERO)
+                .build(Vector.class, 16);
+        for (int i = 0; i < 16; i++) {
+            pool.get().close();
+        }
+
+        final AtomicInteger evicted = new AtomicInteger();
+        final Thread evictor = new Thread(() -> evicted.set(pool.evictIdle()));
+        evictor.start();
+        evictor.join();
+        // The last batch stays in the magazine of this thread, where it is not evicted
+        assertEquals(12, evicted.get());
+
+        for (int i = 0; i < 16; i++) {
+            assertInstanceOf(CleanableImpl.class, pool.get());
+        }
+        assertEquals(0L, pool.stats().supplierFallbacks());
+    }
+
+    @Test
+    void testRecentlyUsedWordsAreKept() {
+        final CleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().supplier(Vector::new).evictIdle(Duration.ofHours(1L)).build(Vector.class, 10);
+        pool.get().close();
+        assertEquals(0, pool.evictIdle());
+    }
+
+    @Test
+    void testEvictionRequireSupplier() {
+        assertThrows(IllegalStateException.class,
+                () -> Pool.<Vector>newBuilder().evictIdle(Duration.ZERO).build(new Vector[] {new Vector()}));
+        assertEquals(0, Pool.<Vector>newBuilder().build(new Vector[] {new Vector()}).evictIdle());
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedPoolTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testEachKeyHasItsOwnSubPool(final PoolConcurrency concurrency) {
+        final KeyedPool<String, Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .buildKeyed(key -> new Vector(key.length(), 0, 0), 2, 10);
+        assertEquals(0, pool.keys());
+
+        final Cleanable<Vector> first = pool.get("a");
+        assertEquals(new Vector(1, 0, 0), first.value());
+        assertSame(pool.pool("a"), pool.pool("a"));
+        assertNotSame(pool.pool("a"), pool.pool("bb"));
+        assertEquals(new Vector(2, 0, 0), pool.get("bb").value());
+        assertEquals(2, pool.keys());
+        assertEquals(4, pool.size());
+        assertEquals(2, pool.pool("a").size());
+
+        final Vector value = first.value();
+        first.close();
+        assertSame(value, pool.get("a").value());
+    }
+
+    @Test
+    void testMaxSizeIsSharedByEveryKey() {
+        final AtomicInteger created = new AtomicInteger();
+        final KeyedPool<Class<?>, Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(PoolConcurrency.LOCK_FREE)
+                .buildClassKeyed(type -> {
+                    created.incrementAndGet();
+                    return new Vector();
+                }, 4, 6);
+        assertSame(pool.pool(String.class), pool.pool(String.class));
+        assertEquals(4, pool.pool(String.class).size());
+        assertEquals(2, pool.pool(Integer.class).size());
+        assertEquals(0, pool.pool(Long.class).size());
+        assertEquals(3, pool.keys());
+        assertEquals(6, pool.size());
+
+        assertEquals(6, created.get());
+        assertInstanceOf(IgnoredCleanable.class, pool.get(Long.class));
+        assertEquals(7, created.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testIntKeysUseDenseSubPools(final PoolConcurrency concurrency) {
+        final IntKeyedPool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .buildIntKeyed(key -> new Vector(key, key, key), 4, 3, 100);
+        assertEquals(4, pool.keyCount());
+        assertEquals(new Vector(3, 3, 3), pool.get(3).value());
+        assertSame(pool.pool(3), pool.pool(Integer.valueOf(3)));
+        assertEquals(1, pool.keys());
+        assertThrows(IllegalArgumentException.class, () -> pool.pool(4));
+        assertThrows(IllegalArgumentException.class, () -> pool.get(-1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testSubPoolsUseGeneratedResetter(final PoolConcurrency concurrency) {
+        final KeyedPool<String, PoolableTest.Particle> pool = Pool.<PoolableTest.Particle>newBuilder()
+                .concurrency(concurrency)
+                .buildKeyed(key -> new PoolableTest.Particle(), 1, 10);
+        final Cleanable<PoolableTest.Particle> cleanable = pool.get("a");
+        final PoolableTest.Particle particle = cleanable.value();
+        particle.x = 3;
+        particle.capacity = 4;
+        cleanable.close();
+
+        assertSame(particle, pool.get("a").value());
+        assertEquals(0, particle.x);
+        assertEquals(16, particle.capacity);
+    }
+
+    @Test
+    void testBuildValidateSettings() {
+        final Pool.Builder<Vector> builder = Pool.<Vector>newBuilder().cleanAsync(Runnable::run);
+        assertThrows(IllegalStateException.class, () -> builder.buildKeyed(key -> new Vector(), 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> Pool.<Vector>newBuilder().buildIntKeyed(key -> new Vector(), -1, 1, 1));
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.nomoreinstance.exception.NoMoreObjectException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeakTrackerTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testLeakedSlotIsReclaimed(final PoolConcurrency concurrency) throws InterruptedException {
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder().concurrency(concurrency).trackLeaks(1).build(filledVectors(1));
+        this.leak(pool);
+        assertEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+
+        int index = CleanablePool.NO_INDEX;
+        for (int i = 0; i < 200 && index == CleanablePool.NO_INDEX; i++) {
+            System.gc();
+            Thread.sleep(10L);
+            index = pool.acquireIndex();
+        }
+        assertNotEquals(CleanablePool.NO_INDEX, index);
+        assertEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+    }
+
+    @Test
+    void testClosedCleanableIsReleasedOnce() {
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder().trackLeaks(1).build(filledVectors(2));
+        final Cleanable<Vector> cleanable = pool.get();
+        assertNotSame(CleanableImpl.class, cleanable.getClass());
+        final Cleanable<Vector> other = pool.get();
+
+        cleanable.close();
+        cleanable.close();
+        assertSame(cleanable.value(), pool.get().value());
+        assertThrows(NoMoreObjectException.class, pool::get);
+        other.close();
+    }
+
+    private void leak(final CleanablePool<Vector> pool) {
+        assertNotNull(pool.get().value());
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.nomoreinstance.exception.AcquireTimeoutException;
+import be.yvanmazy.nomoreinstance.exception.NoMoreObjectException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MagazineCleanablePoolTest extends CleanablePoolTest {
+
+    private static final int CAPACITY = 8;
+    private static final int BATCH_SIZE = 4;
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testReleasedSlotIsReusedByTheSameThread(final PoolConcurrency concurrency) {
+        final CleanablePool<Vector> pool = this.buildCleanable(Pool.<Vector>newBuilder().concurrency(concurrency), filledVectors(100));
+
+        final Cleanable<Vector> first = pool.get();
+        final Vector value = first.value();
+        first.close();
+        for (int i = 0; i < 10; i++) {
+            try (final Cleanable<Vector> cleanable = pool.get()) {
+                assertSame(value, cleanable.value());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "NOT_CONCURRENT", mode = EnumSource.Mode.EXCLUDE)
+    void testSlotsOfAnotherThreadAreReclaimed(final PoolConcurrency concurrency) throws InterruptedException {
+        final CleanablePool<Vector> pool = this.buildCleanable(Pool.<Vector>newBuilder().concurrency(concurrency), filledVectors(4));
+        final CountDownLatch released = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread owner = new Thread(() -> {
+            for (int i = 0; i < 4; i++) {
+                pool.get();
+            }
+            pool.cleanAll();
+            for (int i = 0; i < 4; i++) {
+                pool.get().close();
+            }
+            released.countDown();
+            try {
+                done.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        owner.start();
+        try {
+            released.await();
+            // Every free slot is parked in the magazine of the other thread, which is still alive
+            for (int i = 0; i < 4; i++) {
+                pool.get();
+            }
+            assertThrows(NoMoreObjectException.class, pool::get);
+            assertEquals(4, pool.stats().inUse());
+        } finally {
+            done.countDown();
+            owner.join();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PoolConcurrency.class, names = "NOT_CONCURRENT", mode = EnumSource.Mode.EXCLUDE)
+    void testBlockingAcquireReclaimSlotsOfEndedThread(final PoolConcurrency concurrency) throws InterruptedException {
+        final CleanablePool<Vector> pool = this.buildCleanable(Pool.<Vector>newBuilder().concurrency(concurrency), filledVectors(2));
+        final Thread owner = new Thread(() -> {
+            final Cleanable<Vector> first = pool.get();
+            final Cleanable<Vector> second = pool.get();
+            first.close();
+            second.close();
+        });
+        owner.start();
+        owner.join();
+
+        assertNotNull(pool.acquire(Duration.ofMillis(50)));
+        assertNotNull(pool.acquire(Duration.ofMillis(50)));
+        assertThrows(AcquireTimeoutException.class, () -> pool.acquire(Duration.ofMillis(10)));
+    }
+
+    @Test
+    void testMagazineRejectInvalidSizes() {
+        final Pool.Builder<Vector> builder = Pool.newBuilder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.magazine(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.magazine(CAPACITY, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.magazine(CAPACITY, CAPACITY + 1));
+    }
+
+    @Override
+    protected <T> CleanablePool<T> buildCleanable(final Pool.Builder<T> builder, final T[] poolArray) {
+        return super.buildCleanable(withMagazine(builder), poolArray);
+    }
+
+    @Override
+    protected CleanablePool<Object> buildConcurrencyPool(final Pool.Builder<Object> builder, final Object[] poolArray) {
+        return super.buildConcurrencyPool(withMagazine(builder), poolArray);
+    }
+
+    private static <T> Pool.Builder<T> withMagazine(final Pool.Builder<T> builder) {
+        return builder.magazine(CAPACITY, BATCH_SIZE);
+    }
+
+}
@@ -52,6 +52,28 @@ class PoolBuilderTest {
         assertEquals(expected, builder.buildSweep(testArray).poolConcurrency());
     }
 
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testPaddedLayoutKeepPoolBehavior(final PoolConcurrency concurrency) {
+        final Vector[] testArray = filledVectors(200);
+        final PoolBuilder<Vector> builder = new PoolBuilder<>();
+        builder.concurrency(concurrency).paddedLayout();
+
+        final CleanablePool<Vector> pool = builder.build(testArray);
+        for (final Vector vector : testArray) {
+            assertSame(vector, pool.get().value());
+        }
+        assertEquals(200, pool.stats().inUse());
+        pool.cleanAll();
+        assertSame(testArray[0], pool.get().value());
+
+        final SweepCleanablePool<Vector> sweepPool = builder.buildSweep(testArray);
+        assertEquals(200, sweepPool.getRange(200).size());
+        assertEquals(200, sweepPool.stats().inUse());
+        sweepPool.cleanAll();
+        assertEquals(0, sweepPool.stats().inUse());
+    }
+
     @Test
     void testBuildThrowExceptionWhenArrayIsNull() {
         final Vector[] testArray = filledVectors(1);
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.nomoreinstance.exception.NoMoreObjectException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolEventsTest {
+
+    private static final String PREFIX = "be.yvanmazy.nomoreinstance.";
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testEventsAreRecorded(final PoolConcurrency concurrency) throws IOException {
+        this.testEventsAreRecorded(concurrency, false);
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testSpecializedPoolEventsAreRecorded(final PoolConcurrency concurrency) throws IOException {
+        this.testEventsAreRecorded(concurrency, true);
+    }
+
+    private void testEventsAreRecorded(final PoolConcurrency concurrency, final boolean specialize) throws IOException {
+        final Pool.Builder<Vector> builder = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .supplier(Vector::new)
+                .cleaner(Vector::reset);
+        final CleanablePool<Vector> pool = (specialize ? builder.specialize() : builder).build(filledVectors(1));
+        final CleanablePool<Vector> exhausted = Pool.<Vector>newBuilder().concurrency(concurrency).build(filledVectors(1));
+
+        final List<RecordedEvent> events;
+        try (final Recording recording = new Recording()) {
+            recording.enable(PREFIX + "SupplierFallback");
+            recording.enable(PREFIX + "Exhaustion");
+            recording.enable(PREFIX + "SlowAcquire").withThreshold(null);
+            recording.enable(PREFIX + "SlowCleaner").withThreshold(null);
+            recording.start();
+
+            final Cleanable<Vector> first = pool.get();
+            pool.get().close();
+            first.close();
+            exhausted.get();
+            assertThrows(NoMoreObjectException.class, exhausted::get);
+
+            recording.stop();
+            final Path file = this.directory.resolve("events.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        final int poolId = System.identityHashCode(pool);
+        final RecordedEvent fallback = single(events, "SupplierFallback", poolId);
+        assertEquals(1, fallback.getInt("size"));
+        assertEquals(1, fallback.getInt("inUse"));
+        assertEquals(2, count(events, "SlowAcquire", poolId));
+        assertEquals(1, count(events, "SlowCleaner", poolId));
+        assertEquals(0, count(events, "Exhaustion", poolId));
+        single(events, "Exhaustion", System.identityHashCode(exhausted));
+    }
+
+    @Test
+    void testOccupancyIsSampled() throws IOException {
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder().build(filledVectors(3));
+        pool.get();
+        pool.get();
+
+        final List<RecordedEvent> events;
+        try (final Recording recording = new Recording()) {
+            recording.enable(PREFIX + "Occupancy").with("period", "beginChunk");
+            recording.start();
+            recording.stop();
+            final Path file = this.directory.resolve("occupancy.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        final RecordedEvent occupancy = single(events, "Occupancy", System.identityHashCode(pool));
+        assertEquals(3, occupancy.getInt("size"));
+        assertEquals(2, occupancy.getInt("inUse"));
+    }
+
+    @Test
+    void testDisabledEventsAreNotRecorded() {
+        assertFalse(PoolEvents.isSupplierFallbackEnabled());
+        assertFalse(PoolEvents.isSlowCleanerEnabled());
+        assertNull(PoolEvents.beginAcquire());
+    }
+
+    private static RecordedEvent single(final List<RecordedEvent> events, final String name, final int poolId) {
+        final List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(PREFIX + name))
+                .filter(event -> event.getInt("poolId") == poolId)
+                .toList();
+        assertEquals(1, matching.size());
+        return matching.get(0);
+    }
+
+    private static long count(final List<RecordedEvent> events, final String name, final int poolId) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(PREFIX + name))
+                .filter(event -> event.getInt("poolId") == poolId)
+                .count();
+    }
+
+}
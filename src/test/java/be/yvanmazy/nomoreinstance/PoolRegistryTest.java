@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolRegistryTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testRegisterAndDump(final PoolConcurrency concurrency) {
+        final PoolRegistry registry = PoolRegistry.create();
+        final Pool.Builder<Vector> builder = Pool.<Vector>newBuilder().concurrency(concurrency);
+        final CleanablePool<Vector> vectors = registry.register("vectors", builder.recordStats().build(filledVectors(4)));
+        final ArenaPool<Vector> arenas = registry.register("arenas", builder.withoutStats().buildArena(filledVectors(4), 2));
+
+        assertSame(vectors, registry.get("vectors"));
+        assertSame(arenas, registry.arena("arenas"));
+        assertNull(registry.get("missing"));
+        assertNull(registry.arena("missing"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("arenas"));
+        assertThrows(IllegalArgumentException.class, () -> registry.arena("vectors"));
+        assertEquals(List.of("arenas", "vectors"), List.copyOf(registry.names()));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("vectors", builder.build(filledVectors(1))));
+
+        vectors.get();
+        final Map<String, PoolStats> stats = registry.stats();
+        assertEquals(List.of("arenas", "vectors"), List.copyOf(stats.keySet()));
+        assertEquals(1, stats.get("vectors").inUse());
+        assertEquals(4, stats.get("arenas").size());
+
+        assertEquals("arenas: concurrency=" + concurrency + ", size=4, inUse=0\n" +
+                "vectors: concurrency=" + concurrency + ", size=4, inUse=1, highWaterMark=1, hitRate=1.000\n" +
+                "total: pools=2, size=8, inUse=1\n", registry.dump());
+
+        assertTrue(registry.unregister("arenas"));
+        assertFalse(registry.unregister("arenas"));
+        assertEquals(List.of("vectors"), List.copyOf(registry.names()));
+    }
+
+    @Test
+    void testSharedPoolIsBuiltOnce() {
+        final AtomicInteger builds = new AtomicInteger();
+        final CleanablePool<Shared> pool = PoolRegistry.shared(Shared.class, () -> {
+            builds.incrementAndGet();
+            return Pool.<Shared>newBuilder()
+                    .concurrency(PoolConcurrency.LOCK_FREE)
+                    .supplier(Shared::new)
+                    .build(Shared.class, 0);
+        });
+        assertSame(pool, PoolRegistry.shared(Shared.class, () -> fail("The shared pool must be built once")));
+        assertSame(pool, PoolRegistry.shared(Shared.class));
+        assertSame(pool, PoolRegistry.global().get(Shared.class.getName()));
+        assertEquals(1, builds.get());
+        assertTrue(PoolRegistry.global().dump().contains(Shared.class.getName() + ": concurrency=LOCK_FREE"));
+    }
+
+    @Test
+    void testUnregisterStopsSharing() {
+        final CleanablePool<Unregistered> pool = PoolRegistry.shared(Unregistered.class,
+                () -> Pool.<Unregistered>newBuilder().build(Unregistered.class, 0));
+        assertTrue(PoolRegistry.global().unregister(Unregistered.class.getName()));
+        assertThrows(IllegalStateException.class, () -> PoolRegistry.shared(Unregistered.class));
+
+        final CleanablePool<Unregistered> rebuilt = PoolRegistry.shared(Unregistered.class,
+                () -> Pool.<Unregistered>newBuilder().build(Unregistered.class, 0));
+        assertNotSame(pool, rebuilt);
+        assertSame(rebuilt, PoolRegistry.shared(Unregistered.class));
+        assertSame(rebuilt, PoolRegistry.global().get(Unregistered.class.getName()));
+    }
+
+    @Test
+    void testSharedPoolsOfClassesWithTheSameName() throws IOException {
+        final Class<?> copy = loadCopy(SameName.class);
+        assertNotSame(SameName.class, copy);
+        assertEquals(SameName.class.getName(), copy.getName());
+
+        final CleanablePool<?> pool = sharedPool(SameName.class);
+        final CleanablePool<?> other = sharedPool(copy);
+        assertNotSame(pool, other);
+        assertSame(other, sharedPool(copy));
+        assertSame(pool, PoolRegistry.global().get(SameName.class.getName()));
+        final String otherName = SameName.class.getName() + '@' +
+                Integer.toHexString(System.identityHashCode(copy.getClassLoader()));
+        assertSame(other, PoolRegistry.global().get(otherName));
+    }
+
+    @Test
+    void testMissingSharedPool() {
+        assertThrows(IllegalStateException.class, () -> PoolRegistry.shared(Unshared.class));
+    }
+
+    private static final class Shared {
+    }
+
+    private static final class Unshared {
+    }
+
+    private static final class Unregistered {
+    }
+
+    private static final class SameName {
+    }
+
+    private static <T> CleanablePool<T> sharedPool(final Class<T> type) {
+        return PoolRegistry.shared(type, () -> Pool.<T>newBuilder().build(type, 0));
+    }
+
+    /**
+     * Define the class again in a new class loader, as a plugin loading its own copy of a library would.
+     */
+    private static Class<?> loadCopy(final Class<?> type) throws IOException {
+        final byte[] bytes;
+        final String file = type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class";
+        try (final InputStream input = type.getResourceAsStream(file)) {
+            bytes = input.readAllBytes();
+        }
+        return new ClassLoader(type.getClassLoader()) {
+            Class<?> define() {
+                return this.defineClass(type.getName(), bytes, 0, bytes.length);
+            }
+        }.define();
+    }
+
+}
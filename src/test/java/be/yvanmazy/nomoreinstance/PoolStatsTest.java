@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.nomoreinstance.exception.NoMoreObjectException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolStatsTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testCleanablePoolRecordAcquisitions(final PoolConcurrency concurrency) {
+        final CleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).supplier(Vector::new).recordStats().build(filledVectors(100));
+
+        final Cleanable<Vector> first = pool.get();
+        for (int i = 0; i < 99; i++) {
+            pool.get();
+        }
+        pool.get();
+        pool.get();
+        assertEquals(CleanablePool.NO_INDEX, pool.acquireIndex());
+        first.close();
+
+        final PoolStats stats = pool.stats();
+        assertTrue(stats.recording());
+        assertEquals(100, stats.size());
+        assertEquals(99, stats.inUse());
+        assertEquals(100, stats.highWaterMark());
+        assertEquals(100, stats.hits());
+        assertEquals(2, stats.supplierFallbacks());
+        assertEquals(1, stats.misses());
+        assertEquals(103, stats.acquisitions());
+
+        pool.cleanAll();
+        assertEquals(0, pool.stats().inUse());
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testHighWaterMarkIsThePeakInUse(final PoolConcurrency concurrency) {
+        final CleanablePool<Vector> pool =
+                Pool.<Vector>newBuilder().concurrency(concurrency).recordStats().build(filledVectors(64));
+        for (int i = 0; i < 100; i++) {
+            pool.get().close();
+        }
+        assertEquals(1, pool.stats().highWaterMark());
+
+        final Cleanable<Vector> first = pool.get();
+        final Cleanable<Vector> second = pool.get();
+        first.close();
+        pool.get().close();
+        second.close();
+        assertEquals(2, pool.stats().highWaterMark());
+
+        final SweepCleanablePool<Vector> sweep =
+                Pool.<Vector>newBuilder().concurrency(concurrency).recordStats().buildSweep(filledVectors(8));
+        sweep.get();
+        sweep.get();
+        sweep.cleanAll();
+        sweep.get();
+        assertEquals(2, sweep.stats().highWaterMark());
+    }
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testSweepPoolRecordExhaustions(final PoolConcurrency concurrency) {
+        final SweepCleanablePool<Vector> pool = Pool.<Vector>newBuilder().concurrency(concurrency).recordStats().buildSweep(filledVectors(3));
+
+        pool.get();
+        pool.get();
+        assertEquals(2, pool.stats().inUse());
+        pool.get();
+        assertThrowsExactly(NoMoreObjectException.class, pool::get);
+
+        final PoolStats stats = pool.stats();
+        assertEquals(3, stats.inUse());
+        assertEquals(3, stats.hits());
+        assertEquals(1, stats.exhaustions());
+        assertEquals(0.75D, stats.hitRate());
+    }
+
+    @Test
+    void testStatsAreNotRecordedByDefault() {
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder().build(filledVectors(2));
+
+        pool.get();
+        final PoolStats stats = pool.stats();
+        assertFalse(stats.recording());
+        assertEquals(1, stats.inUse());
+        assertEquals(0, stats.hits());
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.nomoreinstance.annotation.Poolable;
+import be.yvanmazy.nomoreinstance.annotation.ResetTo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolableTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testGeneratedResetterIsTheDefaultCleaner(final PoolConcurrency concurrency) {
+        final CleanablePool<Particle> pool =
+                Pool.<Particle>newBuilder().concurrency(concurrency).supplier(Particle::new).build(Particle.class, 1);
+        final Particle particle;
+        try (final Cleanable<Particle> cleanable = pool.get()) {
+            particle = cleanable.value();
+            assertEquals(16, particle.capacity);
+            particle.x = 1.0D;
+            particle.alive = true;
+            particle.capacity = 3;
+            particle.y = 2.0D;
+            particle.tags = List.of("a");
+        }
+        try (final Cleanable<Particle> cleanable = pool.get()) {
+            assertSame(particle, cleanable.value());
+            assertEquals(0.0D, particle.x);
+            assertFalse(particle.alive);
+            assertEquals(16, particle.capacity);
+            assertTrue(Double.isNaN(particle.y));
+            assertNull(particle.tags);
+            assertEquals(Particle.KIND, particle.kind);
+        }
+    }
+
+    @Test
+    void testExplicitCleanerWins() {
+        final SweepCleanablePool<Particle> pool = Pool.<Particle>newBuilder()
+                .supplier(Particle::new)
+                .cleaner(particle -> particle)
+                .buildSweep(Particle.class, 1);
+        pool.get().capacity = 3;
+        pool.cleanAll();
+        assertEquals(3, pool.get().capacity);
+        assertNull(GeneratedResetters.find(Vector.class));
+        assertEquals("be.yvanmazy.nomoreinstance.PoolableTest_ParticleResetter",
+                GeneratedResetters.resetterName(Particle.class));
+    }
+
+    @Poolable
+    static final class Particle {
+
+        static final String KIND = "particle";
+
+        final String kind = KIND;
+        double x;
+        boolean alive;
+        int capacity = 16;
+        @ResetTo("Double.NaN")
+        double y = Double.NaN;
+        List<String> tags;
+
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Yvan Mazy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package be.yvanmazy.nomoreinstance;
+
+import be.yvanmazy.nomoreinstance.exception.NoMoreObjectException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpecializedPoolTest {
+
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testSpecializedPoolUseBoundHooks(final PoolConcurrency concurrency) {
+        final Vector[] array = filledVectors(2);
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .concurrency(concurrency)
+                .supplier(() -> new Vector(9, 9, 9))
+                .cleaner(Vector::reset)
+                .recordStats()
+                .specialize()
+                .build(array);
+        assertTrue(pool.getClass().isHidden());
+        assertEquals(concurrency, pool.poolConcurrency());
+
+        array[0].set(1, 1, 1);
+        array[1].set(1, 1, 1);
+        final Cleanable<Vector> first = pool.get();
+        final Cleanable<Vector> second = pool.get();
+        assertEquals(new Vector(), first.value());
+        assertEquals(new Vector(), second.value());
+        assertEquals(new Vector(9, 9, 9), pool.get().value());
+        assertEquals(2, pool.stats().inUse());
+        assertEquals(1L, pool.stats().supplierFallbacks());
+
+        first.close();
+        second.close();
+        pool.cleanAll();
+        assertEquals(0, pool.stats().inUse());
+    }
+
+    @Test
+    void testEveryPoolHasItsOwnClass() {
+        final Pool.Builder<Vector> builder = Pool.<Vector>newBuilder().specialize();
+        final CleanablePool<Vector> first = builder.build(filledVectors(1));
+        final CleanablePool<Vector> second = builder.build(filledVectors(1));
+        assertNotSame(first.getClass(), second.getClass());
+
+        first.get();
+        assertThrows(NoMoreObjectException.class, first::get);
+        assertFalse(builder.withoutSpecialization().build(filledVectors(1)).getClass().isHidden());
+    }
+
+    @Test
+    void testReleaseCleanerIsBound() {
+        final Vector[] array = filledVectors(1);
+        final CleanablePool<Vector> pool = Pool.<Vector>newBuilder()
+                .cleaner(Vector::reset)
+                .cleanOnRelease()
+                .specialize()
+                .build(array);
+        try (final Cleanable<Vector> cleanable = pool.get()) {
+            cleanable.value().set(1, 1, 1);
+            assertEquals(new Vector(1, 1, 1), array[0]);
+        }
+        assertEquals(new Vector(), array[0]);
+    }
+
+}
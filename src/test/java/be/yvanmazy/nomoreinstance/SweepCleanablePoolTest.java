@@ -27,8 +27,10 @@ package be.yvanmazy.nomoreinstance;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
+import java.util.List;
+
 import static be.yvanmazy.nomoreinstance.util.ArrayTestUtil.filledVectors;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class SweepCleanablePoolTest extends AbstractPoolTest<SweepCleanablePool<?>> {
 
@@ -47,6 +49,26 @@ class SweepCleanablePoolTest extends AbstractPoolTest<SweepCleanablePool<?>> {
         }
     }
 
+    @ParameterizedTest
+    @EnumSource(PoolConcurrency.class)
+    void testGetRangeTopUpFromSupplier(final PoolConcurrency concurrency) {
+        final SweepCleanablePool<Vector> pool =
+                this.build(Pool.<Vector>newBuilder().concurrency(concurrency).supplier(() -> new Vector(1, 1, 1)), filledVectors(4));
+
+        final List<Vector> first = pool.getRange(3);
+        assertEquals(3, first.size());
+        first.forEach(vector -> assertEquals(ZERO_VECTOR, vector));
+        assertThrows(UnsupportedOperationException.class, () -> first.set(0, new Vector()));
+
+        final List<Vector> second = pool.getRange(3);
+        assertEquals(List.of(ZERO_VECTOR, ONE_VECTOR, ONE_VECTOR), second);
+        assertEquals(List.of(ONE_VECTOR, ONE_VECTOR), pool.getRange(2));
+        assertTrue(pool.getRange(0).isEmpty());
+
+        pool.cleanAll();
+        assertEquals(4, pool.getRange(4).stream().filter(ZERO_VECTOR::equals).count());
+    }
+
     @Override
     protected <T> SweepCleanablePool<T> build(final Pool.Builder<T> builder, final T[] poolArray) {
         return builder.buildSweep(poolArray);
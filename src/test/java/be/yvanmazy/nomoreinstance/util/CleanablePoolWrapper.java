@@ -27,6 +27,7 @@ package be.yvanmazy.nomoreinstance.util;
 import be.yvanmazy.nomoreinstance.CleanablePool;
 import be.yvanmazy.nomoreinstance.Pool;
 import be.yvanmazy.nomoreinstance.PoolConcurrency;
+import be.yvanmazy.nomoreinstance.PoolStats;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Range;
 
@@ -47,4 +48,9 @@ public record CleanablePoolWrapper<T>(CleanablePool<T> delegate) implements Pool
         return this.delegate.poolConcurrency();
     }
 
+    @Override
+    public @NotNull PoolStats stats() {
+        return this.delegate.stats();
+    }
+
 }
\ No newline at end of file